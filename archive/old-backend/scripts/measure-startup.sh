@@ -0,0 +1,78 @@
+#!/usr/bin/env sh
+# Measures time-to-first-request: from JVM launch until PROBE_PATH answers with 2xx. Reports the median
+# of RUNS starts and exits with 1 when it is above TARGET_MS.
+#
+#   ./mvnw package -DskipTests && scripts/measure-startup.sh standard
+#   ./mvnw -Pfast-startup package -DskipTests && scripts/measure-startup.sh fast
+#
+# Environment:
+#   TARGET_MS   time-to-first-request budget in ms (default 15000)
+#   RUNS        number of starts (default 3)
+#   PORT        port to start on (default 18080)
+#   PROBE_PATH  first request (default /parking-spots, which touches the database)
+#   PROFILES    Spring profiles (default: production[,fast-startup],h2 - in-memory H2, no PostgreSQL needed;
+#               drop ",h2" and set SPRING_DATASOURCE_* to measure against a real database)
+set -eu
+
+MODE=${1:-fast}
+cd "$(dirname "$0")/.."
+
+RUNS=${RUNS:-3}
+PORT=${PORT:-18080}
+PROBE_PATH=${PROBE_PATH:-/parking-spots}
+
+case "$MODE" in
+  fast)
+    DIR=target/fast-startup
+    JAR=$(ls "$DIR"/backend-*.jar)
+    PROFILES=${PROFILES:-production,fast-startup,h2}
+    TARGET_MS=${TARGET_MS:-15000}
+    set -- -XX:SharedArchiveFile="$DIR/application.jsa" -Xlog:cds=off -Dspring.aot.enabled=true -jar "$JAR"
+    ;;
+  standard)
+    JAR=$(ls target/backend-*.jar | grep -v original | head -n 1)
+    PROFILES=${PROFILES:-production,h2}
+    TARGET_MS=${TARGET_MS:-15000}
+    set -- -jar "$JAR"
+    ;;
+  *)
+    echo "usage: $0 [fast|standard]" >&2
+    exit 2
+    ;;
+esac
+
+now_ms() {
+  date +%s%3N
+}
+
+results=""
+i=1
+while [ "$i" -le "$RUNS" ]; do
+  start=$(now_ms)
+  java "$@" --server.port="$PORT" --spring.profiles.active="$PROFILES" > "target/startup-$MODE-$i.log" 2>&1 &
+  pid=$!
+  elapsed=""
+  while kill -0 "$pid" 2>/dev/null; do
+    code=$(curl -s -o /dev/null -w '%{http_code}' "http://localhost:$PORT$PROBE_PATH" || true)
+    case "$code" in
+      2*) elapsed=$(( $(now_ms) - start )); break ;;
+    esac
+    if [ $(( $(now_ms) - start )) -gt 120000 ]; then
+      break
+    fi
+    sleep 0.05
+  done
+  kill "$pid" 2>/dev/null || true
+  wait "$pid" 2>/dev/null || true
+  if [ -z "$elapsed" ]; then
+    echo "run $i: no successful response, see target/startup-$MODE-$i.log" >&2
+    exit 1
+  fi
+  echo "run $i: ${elapsed} ms"
+  results="$results $elapsed"
+  i=$((i + 1))
+done
+
+median=$(echo $results | tr ' ' '\n' | sort -n | awk '{ v[NR] = $1 } END { print v[int((NR + 1) / 2)] }')
+echo "$MODE: median time-to-first-request ${median} ms (target ${TARGET_MS} ms)"
+[ "$median" -le "$TARGET_MS" ]
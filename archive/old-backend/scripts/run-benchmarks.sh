@@ -0,0 +1,25 @@
+#!/usr/bin/env sh
+# Runs the JMH benchmarks and keeps the JSON results per commit, so ops/s and allocation (gc.alloc.rate.norm,
+# bytes per operation) can be compared between commits.
+#
+#   scripts/run-benchmarks.sh                      # all benchmarks
+#   scripts/run-benchmarks.sh MappingBenchmark     # JMH include regex
+#
+# Results: target/jmh/<short commit>[-dirty].json (JMH JSON format; load into jmh.morethan.io or diff with jq)
+set -eu
+
+cd "$(dirname "$0")/.."
+
+PATTERN=${1:-.*}
+REV=$(git rev-parse --short HEAD)
+if [ -n "$(git status --porcelain -- src pom.xml)" ]; then
+  REV="$REV-dirty"
+fi
+OUT=target/jmh/$REV.json
+mkdir -p target/jmh
+
+sh ./mvnw -B -q -Pbenchmark test-compile exec:exec \
+  -Djmh.args="$PATTERN" \
+  -Djmh.report.args="-rf json -rff $PWD/$OUT -prof gc"
+
+echo "Results written to $OUT"
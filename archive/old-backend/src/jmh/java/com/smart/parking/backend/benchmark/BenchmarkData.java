@@ -0,0 +1,39 @@
+package com.smart.parking.backend.benchmark;
+
+import com.smart.parking.backend.dto.ParkingSpotDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic spots shared by the benchmarks (seeded so runs are comparable across commits).
+ */
+final class BenchmarkData {
+
+    // Roughly downtown San Francisco
+    static final double CENTER_LAT = 37.7749;
+    static final double CENTER_LNG = -122.4194;
+
+    static final String JWT_SECRET = "benchmark-secret-key-with-at-least-32-characters!!";
+
+    private BenchmarkData() {
+    }
+
+    static List<ParkingSpotDTO> spots(int count) {
+        Random random = new Random(42);
+        List<ParkingSpotDTO> spots = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ParkingSpotDTO dto = new ParkingSpotDTO();
+            dto.setId((long) i + 1);
+            dto.setLatitude(CENTER_LAT + (random.nextDouble() - 0.5) * 0.1);
+            dto.setLongitude(CENTER_LNG + (random.nextDouble() - 0.5) * 0.1);
+            dto.setAddress((100 + random.nextInt(3000)) + " Market St, San Francisco, CA");
+            dto.setAvailable(random.nextBoolean());
+            dto.setPrice(1.0 + random.nextInt(12) * 0.5);
+            dto.setRestrictions(random.nextInt(4) == 0 ? "2 hour limit 9am-6pm Mon-Sat" : null);
+            spots.add(dto);
+        }
+        return spots;
+    }
+}
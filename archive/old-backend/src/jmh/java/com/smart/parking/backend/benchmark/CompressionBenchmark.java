@@ -0,0 +1,67 @@
+package com.smart.parking.backend.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smart.parking.backend.util.ContentCodings;
+import com.smart.parking.backend.util.ContentCodings.Coding;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of compressing the full spot list per request (what on-the-fly server compression pays on every
+ * response) against serving bytes compressed once per data version. Compressed sizes are printed once per
+ * trial; brotli results are skipped when the native library is not available on this platform.
+ * <p>
+ * Run: {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args=CompressionBenchmark}
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CompressionBenchmark {
+
+    @Param({"1000", "50000"})
+    int spotCount;
+
+    @Param({"1", "6"})
+    int gzipLevel;
+
+    @Param({"5"})
+    int brotliQuality;
+
+    private byte[] json;
+    private byte[] precompressed;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        json = new ObjectMapper().writeValueAsBytes(BenchmarkData.spots(spotCount));
+        precompressed = ContentCodings.gzip(json, gzipLevel);
+        String brotli = ContentCodings.brotliAvailable()
+                ? String.valueOf(ContentCodings.brotli(json, brotliQuality).length)
+                : "unavailable";
+        System.out.printf("%n[payload] spots=%d json=%d bytes gzip-%d=%d bytes br-%d=%s%n",
+                spotCount, json.length, gzipLevel, precompressed.length, brotliQuality, brotli);
+    }
+
+    @Benchmark
+    public byte[] gzipPerRequest() {
+        return ContentCodings.encode(json, Coding.GZIP, gzipLevel, brotliQuality);
+    }
+
+    @Benchmark
+    public byte[] brotliPerRequest() {
+        return ContentCodings.brotliAvailable()
+                ? ContentCodings.encode(json, Coding.BROTLI, gzipLevel, brotliQuality)
+                : json;
+    }
+
+    /**
+     * The pre-compressed path: the response body is already in memory.
+     */
+    @Benchmark
+    public byte[] cached() {
+        return precompressed;
+    }
+}
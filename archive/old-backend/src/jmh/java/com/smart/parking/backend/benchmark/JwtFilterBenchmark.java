@@ -0,0 +1,70 @@
+package com.smart.parking.backend.benchmark;
+
+import com.smart.parking.backend.model.User;
+import com.smart.parking.backend.security.JwtAuthenticationFilter;
+import com.smart.parking.backend.security.JwtUtil;
+import com.smart.parking.backend.security.TokenRevocationList;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-request cost of {@link JwtAuthenticationFilter} for an authenticated call, with the principal built
+ * from claims ({@code stateless}) versus loaded through {@link UserDetailsService} ({@code lookup}).
+ * The lookup stub is in-memory, so the real gap is larger by one {@code findByEmail} round trip per
+ * request; {@code userLookups} in the output counts how many of those the mode would have issued.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtFilterBenchmark {
+
+    @Param({"stateless", "lookup"})
+    String mode;
+
+    private JwtAuthenticationFilter filter;
+    private String bearer;
+    private final AtomicLong lookups = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        User user = new User(1L, "Jane Driver", "jane@example.com", "{noop}unused", null);
+
+        JwtUtil jwtUtil = new JwtUtil(BenchmarkData.JWT_SECRET, "k1", "", 3600L);
+        bearer = "Bearer " + jwtUtil.generateToken(user);
+
+        UserDetailsService userDetailsService = email -> {
+            lookups.incrementAndGet();
+            return user;
+        };
+        TokenRevocationList revocationList = new TokenRevocationList();
+
+        filter = new JwtAuthenticationFilter(jwtUtil, userDetailsService, revocationList);
+        ReflectionTestUtils.setField(filter, "statelessPrincipal", "stateless".equals(mode));
+    }
+
+    @TearDown(Level.Trial)
+    public void report() {
+        System.out.printf("%n[jwt-filter] mode=%s userLookups=%d%n", mode, lookups.get());
+    }
+
+    @Benchmark
+    public Object authenticatedRequest() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/auth/me");
+        request.addHeader("Authorization", bearer);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        Object authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+}
@@ -0,0 +1,65 @@
+package com.smart.parking.backend.benchmark;
+
+import com.smart.parking.backend.model.User;
+import com.smart.parking.backend.security.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tokens verified per second on one core. {@code legacy} reproduces the previous request path: a key
+ * and a parser built per parse, and three parses per request ({@code extractUsername}, then
+ * {@code extractUsername} + {@code extractExpiration} inside {@code validateToken}). {@code singlePass}
+ * is the current path: one parse with the cached parser and keys; {@code validateToken} adds the subject and
+ * expiry checks on top of it.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtVerificationBenchmark {
+
+    private JwtUtil jwtUtil;
+    private String token;
+    private User user;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        jwtUtil = new JwtUtil(BenchmarkData.JWT_SECRET, "k1", "k0:previous-benchmark-secret-with-32-characters!!", 3600L);
+        user = new User(1L, "Jane Driver", "jane@example.com", "{noop}unused", null);
+        token = jwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public Object singlePass() {
+        Claims claims = jwtUtil.extractAllClaims(token);
+        return claims.getSubject();
+    }
+
+    @Benchmark
+    public Boolean validateToken() {
+        return jwtUtil.validateToken(token, user);
+    }
+
+    @Benchmark
+    public Object legacy() {
+        String username = legacyParse().getSubject();
+        boolean valid = legacyParse().getSubject().equals(username) && !legacyParse().getExpiration().before(new Date());
+        return valid ? username : null;
+    }
+
+    private Claims legacyParse() {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(BenchmarkData.JWT_SECRET.getBytes()))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+}
@@ -0,0 +1,68 @@
+package com.smart.parking.backend.benchmark;
+
+import com.smart.parking.backend.dto.ParkingSpotDTO;
+import com.smart.parking.backend.model.ParkingSpot;
+import com.smart.parking.backend.util.GeometryUtil;
+import com.smart.parking.backend.util.ParkingSpotMapper;
+import org.locationtech.jts.geom.Point;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The per-row work around every spot read and write: entity/DTO mapping (a list for the list endpoints,
+ * a single spot for create/update) and building the JTS point stored with each spot.
+ * Run with the default {@code -prof gc} to see bytes allocated per operation next to the timings.
+ * <p>
+ * Run: {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args=MappingBenchmark}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MappingBenchmark {
+
+    @Param({"1000"})
+    int spotCount;
+
+    private final GeometryUtil geometryUtil = new GeometryUtil();
+
+    private List<ParkingSpot> entities;
+    private ParkingSpotDTO dto;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<ParkingSpotDTO> spots = BenchmarkData.spots(spotCount);
+        entities = spots.stream().map(ParkingSpotMapper::toEntity).toList();
+        dto = spots.get(0);
+    }
+
+    @Benchmark
+    public List<ParkingSpotDTO> listToDTO() {
+        return entities.stream().map(ParkingSpotMapper::toDTO).toList();
+    }
+
+    @Benchmark
+    public ParkingSpotDTO toDTO() {
+        return ParkingSpotMapper.toDTO(entities.get(0));
+    }
+
+    @Benchmark
+    public ParkingSpot toEntity() {
+        return ParkingSpotMapper.toEntity(dto);
+    }
+
+    @Benchmark
+    public Point createPoint() {
+        return geometryUtil.createPoint(dto.getLongitude(), dto.getLatitude());
+    }
+
+    @Benchmark
+    public double distanceMeters() {
+        return GeometryUtil.distanceMeters(BenchmarkData.CENTER_LAT, BenchmarkData.CENTER_LNG,
+                dto.getLatitude(), dto.getLongitude());
+    }
+}
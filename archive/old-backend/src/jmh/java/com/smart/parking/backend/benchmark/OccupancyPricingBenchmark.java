@@ -0,0 +1,90 @@
+package com.smart.parking.backend.benchmark;
+
+import com.smart.parking.backend.cache.SpotDataVersion;
+import com.smart.parking.backend.config.RegionProperties;
+import com.smart.parking.backend.dto.ParkingSpotDTO;
+import com.smart.parking.backend.event.ParkingSpotUpdateEvent;
+import com.smart.parking.backend.repository.ParkingSpotRepository;
+import com.smart.parking.backend.repository.SpotHoldRepository;
+import com.smart.parking.backend.service.OccupancyPricingEngine;
+import com.smart.parking.backend.service.RegionRouter;
+import com.smart.parking.backend.service.SpotHoldTable;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Occupancy pricing for one city: {@code refresh} recounts every cell and re-evaluates every multiplier
+ * (the scheduled safety net), {@code availabilityUpdate} is the per-event path that keeps one cell current,
+ * and {@code effectivePrice} is what each spot read costs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OccupancyPricingBenchmark {
+
+    private static final String REGION = "default";
+
+    @Param({"100000"})
+    public int spotCount;
+
+    private OccupancyPricingEngine engine;
+    private ParkingSpotDTO spot;
+    private boolean available;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<ParkingSpotRepository.SpotLocation> locations = new ArrayList<>();
+        List<ParkingSpotDTO> city = BenchmarkData.spots(spotCount);
+        for (ParkingSpotDTO dto : city) {
+            dto.setRegion(REGION);
+            locations.add(new SpatialQueryBenchmark.Location(dto.getId(), REGION, dto.getLatitude(),
+                    dto.getLongitude(), dto.isAvailable()));
+        }
+        ParkingSpotRepository repository = (ParkingSpotRepository) Proxy.newProxyInstance(
+                ParkingSpotRepository.class.getClassLoader(), new Class<?>[]{ParkingSpotRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findAllLocations" -> locations;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        SpotHoldRepository holdRepository = (SpotHoldRepository) Proxy.newProxyInstance(
+                SpotHoldRepository.class.getClassLoader(), new Class<?>[]{SpotHoldRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findByExpiresAtAfter" -> List.of();
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        RegionRouter router = new RegionRouter(RegionProperties.defaults());
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SpotHoldTable holdTable = new SpotHoldTable(holdRepository, router, event -> { }, registry);
+        holdTable.load();
+        engine = new OccupancyPricingEngine(repository, router, holdTable, new SpotDataVersion(), registry,
+                500, 5, "0.7:1.25,0.85:1.5,0.95:2.0");
+        engine.load();
+        spot = city.get(spotCount / 2);
+        available = spot.isAvailable();
+    }
+
+    @Benchmark
+    public void refresh() {
+        engine.refresh(REGION);
+    }
+
+    @Benchmark
+    public void availabilityUpdate() {
+        available = !available;
+        engine.onParkingSpotUpdate(new ParkingSpotUpdateEvent(this, spot.getId(), REGION, available,
+                "AVAILABILITY_UPDATE"));
+    }
+
+    @Benchmark
+    public Double effectivePrice() {
+        return engine.effectivePrice(spot);
+    }
+}
@@ -0,0 +1,45 @@
+package com.smart.parking.backend.benchmark;
+
+import com.smart.parking.backend.security.TokenBucketRateLimiter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one limiter decision. {@code sharedKey} has every thread hammering the same bucket (worst-case
+ * CAS contention); {@code spreadKeys} spreads calls over 10k clients, the realistic case.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RateLimiterBenchmark {
+
+    private static final int CLIENTS = 10_000;
+
+    private TokenBucketRateLimiter limiter;
+    private String[] keys;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        limiter = new TokenBucketRateLimiter(1_000, 1, TimeUnit.SECONDS);
+        keys = new String[CLIENTS];
+        for (int i = 0; i < CLIENTS; i++) {
+            keys[i] = "ip:10.0." + (i / 256) + "." + (i % 256);
+        }
+    }
+
+    @Benchmark
+    public Object sharedKey() {
+        return limiter.tryAcquire("ip:10.0.0.1");
+    }
+
+    @Benchmark
+    public Object spreadKeys() {
+        return limiter.tryAcquire(keys[ThreadLocalRandom.current().nextInt(CLIENTS)]);
+    }
+}
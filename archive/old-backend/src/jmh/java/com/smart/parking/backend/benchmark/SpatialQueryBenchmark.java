@@ -0,0 +1,123 @@
+package com.smart.parking.backend.benchmark;
+
+import com.smart.parking.backend.config.RegionProperties;
+import com.smart.parking.backend.dto.ParkingSpotDTO;
+import com.smart.parking.backend.impl.InMemorySpatialQueryEngine;
+import com.smart.parking.backend.model.ParkingSpot;
+import com.smart.parking.backend.repository.ParkingSpotRepository;
+import com.smart.parking.backend.service.RegionRouter;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory nearby search over a dense downtown (spots spread over ~11 km x 9 km). The repository is a stub
+ * backed by a map, so this measures the grid walk, haversine filtering and ordering, not the primary-key
+ * fetch the real engine does afterwards.
+ * <p>
+ * {@code regions} adds further cities of the same size (same coordinates, other regions): the searched
+ * city's latency should not move, since each region has a grid of its own.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SpatialQueryBenchmark {
+
+    private static final String REGION = "default";
+
+    @Param({"100000"})
+    public int spotCount;
+
+    @Param({"250", "1000", "5000"})
+    public double radius;
+
+    @Param({"1", "10"})
+    public int regions;
+
+    private InMemorySpatialQueryEngine engine;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Map<Long, ParkingSpot> rows = new HashMap<>();
+        List<ParkingSpotRepository.SpotLocation> locations = new ArrayList<>();
+        List<ParkingSpotDTO> city = BenchmarkData.spots(spotCount);
+        for (int r = 0; r < regions; r++) {
+            String region = r == 0 ? REGION : "city-" + r;
+            for (ParkingSpotDTO dto : city) {
+                long id = (long) r * spotCount + dto.getId();
+                if (r == 0) {
+                    ParkingSpot spot = new ParkingSpot();
+                    spot.setId(id);
+                    spot.setRegion(region);
+                    spot.setLatitude(dto.getLatitude());
+                    spot.setLongitude(dto.getLongitude());
+                    spot.setAvailable(dto.isAvailable());
+                    rows.put(id, spot);
+                }
+                locations.add(new Location(id, region, dto.getLatitude(), dto.getLongitude(), dto.isAvailable()));
+            }
+        }
+        ParkingSpotRepository repository = (ParkingSpotRepository) Proxy.newProxyInstance(
+                ParkingSpotRepository.class.getClassLoader(), new Class<?>[]{ParkingSpotRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findAllLocations" -> locations;
+                    case "findAllById" -> {
+                        List<ParkingSpot> found = new ArrayList<>();
+                        for (Object id : (Iterable<?>) args[0]) {
+                            found.add(rows.get((Long) id));
+                        }
+                        yield found;
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        engine = new InMemorySpatialQueryEngine(repository, new RegionRouter(RegionProperties.defaults()), 250);
+        engine.load();
+    }
+
+    @Benchmark
+    public List<ParkingSpot> availableNearby() {
+        return engine.findNearby(REGION, BenchmarkData.CENTER_LAT, BenchmarkData.CENTER_LNG, radius, true, false);
+    }
+
+    @Benchmark
+    public List<ParkingSpot> nearbyOrderedByDistance() {
+        return engine.findNearby(REGION, BenchmarkData.CENTER_LAT, BenchmarkData.CENTER_LNG, radius, false, true);
+    }
+
+    record Location(Long id, String region, Double latitude, Double longitude, boolean available)
+            implements ParkingSpotRepository.SpotLocation {
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public String getRegion() {
+            return region;
+        }
+
+        @Override
+        public Double getLatitude() {
+            return latitude;
+        }
+
+        @Override
+        public Double getLongitude() {
+            return longitude;
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return available;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.smart.parking.backend.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.smart.parking.backend.dto.ParkingSpotDTO;
+import com.smart.parking.backend.dto.ParkingSpotUpdateMessage;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON vs CBOR for the full-city spot list and a single STOMP update message.
+ * Payload sizes are printed once per trial so they land next to the throughput numbers.
+ * <p>
+ * Run: {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args=WireFormatBenchmark}
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WireFormatBenchmark {
+
+    @Param({"1000", "50000"})
+    int spotCount;
+
+    private final ObjectMapper json = new ObjectMapper();
+    private final ObjectMapper cbor = new ObjectMapper(new CBORFactory());
+
+    private List<ParkingSpotDTO> spots;
+    private ParkingSpotUpdateMessage update;
+    private byte[] spotsJson;
+    private byte[] spotsCbor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        spots = BenchmarkData.spots(spotCount);
+        update = new ParkingSpotUpdateMessage("AVAILABILITY_UPDATE", spots.get(0));
+        spotsJson = json.writeValueAsBytes(spots);
+        spotsCbor = cbor.writeValueAsBytes(spots);
+        System.out.printf("%n[payload] spots=%d json=%d bytes cbor=%d bytes (%.1f%%); update json=%d cbor=%d%n",
+                spotCount, spotsJson.length, spotsCbor.length, 100.0 * spotsCbor.length / spotsJson.length,
+                json.writeValueAsBytes(update).length, cbor.writeValueAsBytes(update).length);
+    }
+
+    @Benchmark
+    public byte[] listToJson() throws Exception {
+        return json.writeValueAsBytes(spots);
+    }
+
+    @Benchmark
+    public byte[] listToCbor() throws Exception {
+        return cbor.writeValueAsBytes(spots);
+    }
+
+    @Benchmark
+    public Object listFromJson() throws Exception {
+        return json.readValue(spotsJson, ParkingSpotDTO[].class);
+    }
+
+    @Benchmark
+    public Object listFromCbor() throws Exception {
+        return cbor.readValue(spotsCbor, ParkingSpotDTO[].class);
+    }
+
+    @Benchmark
+    public byte[] updateToJson() throws Exception {
+        return json.writeValueAsBytes(update);
+    }
+
+    @Benchmark
+    public byte[] updateToCbor() throws Exception {
+        return cbor.writeValueAsBytes(update);
+    }
+}
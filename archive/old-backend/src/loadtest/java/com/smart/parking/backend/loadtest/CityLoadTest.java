@@ -0,0 +1,513 @@
+package com.smart.parking.backend.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.smart.parking.backend.SmartParkingApplication;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * End-to-end capacity run for one node. Boots the application in a child JVM on in-memory H2, seeds a
+ * {@link SyntheticCity}, registers users and drives a closed-loop mixed workload from {@code --threads}
+ * workers. Reports requests/sec, latency percentiles per operation and the server's heap and GC activity
+ * over the measured window (read from its actuator), and exits 1 when a gate is missed.
+ * <pre>
+ * mvn -Ploadtest test-compile exec:exec -Dloadtest.main=com.smart.parking.backend.loadtest.CityLoadTest \
+ *     -Dloadtest.args="--spots=50000 --threads=32 --duration-s=60 --min-rps=500 --max-p99-ms=250"
+ * </pre>
+ * Operations ({@code --mix}, relative weights): {@code nearby} (closest first within {@code --nearby-radius}),
+ * {@code viewport} (available spots within {@code --viewport-radius}), {@code report} (authenticated
+ * availability report), {@code login}, and {@code list} (the full-city snapshot; weight 0 by default since
+ * one response carries every spot). Search origins follow spot density.
+ * <p>
+ * Rate limiting is switched off in the child because every request comes from one address: this measures
+ * the node, not its limits. Client and server share the machine, so pin them apart ({@code taskset}) for
+ * steadier numbers. {@code --url} targets a running server instead; nothing is seeded and heap/GC figures
+ * need its {@code metrics} endpoint exposed.
+ * Other options: {@code --clusters}, {@code --seed}, {@code --users}, {@code --warmup-s},
+ * {@code --server-heap}, {@code --server-jvm-args}, {@code --port}, {@code --max-samples}, {@code --out},
+ * {@code --max-error-ratio}, {@code --max-throttled-ratio}. 429s (the password hashing pool shedding logins)
+ * are counted as throttled, not as errors.
+ * <p>
+ * {@code --accept-encoding} is sent with every workload GET (bodies are counted, not decoded) and the report includes
+ * wire bytes per operation. To compare the pre-compressed list with on-the-fly compression:
+ * {@code --mix=list:1 --accept-encoding=gzip}, once as is and once with
+ * {@code --server-jvm-args=-Dspot-snapshot.precompressed=false}.
+ */
+public class CityLoadTest {
+
+    private static final String PASSWORD = "load-test-password";
+
+    enum Operation {
+        NEARBY, VIEWPORT, REPORT, LOGIN, LIST;
+
+        String key() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private final ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final String url;
+    private final int spotCount;
+    private final int clusters;
+    private final long seed;
+    private final int userCount;
+    private final int threads;
+    private final int warmupSeconds;
+    private final int durationSeconds;
+    private final Map<Operation, Integer> mix;
+    private final double nearbyRadius;
+    private final double viewportRadius;
+    private final String serverHeap;
+    private final String serverJvmArgs;
+    private final int port;
+    private final int maxSamples;
+    private final Path out;
+    private final double minRps;
+    private final double maxP99Ms;
+    private final double maxErrorRatio;
+    private final double maxThrottledRatio;
+    private final String acceptEncoding;
+    private final Map<String, Object> parameters;
+
+    private final String baseUrl;
+    private List<double[]> locations;
+    private long[] spotIds;
+    private List<String> tokens;
+    private List<String> emails;
+
+    public CityLoadTest(LoadTestArgs args) {
+        this.url = args.string("url", "");
+        this.spotCount = args.integer("spots", 50_000);
+        this.clusters = args.integer("clusters", 20);
+        this.seed = args.longValue("seed", 42);
+        this.userCount = args.integer("users", 20);
+        this.threads = args.integer("threads", 32);
+        this.warmupSeconds = args.integer("warmup-s", 15);
+        this.durationSeconds = args.integer("duration-s", 60);
+        this.mix = parseMix(args.string("mix", "nearby:55,viewport:30,report:12,login:3,list:0"));
+        this.nearbyRadius = args.decimal("nearby-radius", 300);
+        this.viewportRadius = args.decimal("viewport-radius", 800);
+        this.serverHeap = args.string("server-heap", "512m");
+        this.serverJvmArgs = args.string("server-jvm-args", "");
+        this.port = args.integer("port", 18090);
+        this.maxSamples = args.integer("max-samples", 2_000_000);
+        this.out = Path.of(args.string("out", "target/loadtest/city-report.json"));
+        this.minRps = args.decimal("min-rps", 0);
+        this.maxP99Ms = args.decimal("max-p99-ms", 0);
+        this.maxErrorRatio = args.decimal("max-error-ratio", 0.01);
+        this.maxThrottledRatio = args.decimal("max-throttled-ratio", 0.05);
+        this.acceptEncoding = args.string("accept-encoding", "");
+        this.parameters = args.resolved();
+        this.baseUrl = url.isEmpty() ? "http://localhost:" + port : url;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, Object> report = new CityLoadTest(new LoadTestArgs(args)).run();
+        System.exit(Boolean.FALSE.equals(report.get("passed")) ? 1 : 0);
+    }
+
+    Map<String, Object> run() throws Exception {
+        Process server = url.isEmpty() ? startServer() : null;
+        try {
+            awaitHealthy(server);
+            loadSpots();
+            registerUsers();
+
+            System.out.printf("Warming up for %ds with %d threads%n", warmupSeconds, threads);
+            drive(warmupSeconds);
+            Map<String, Double> before = serverStats();
+            System.out.printf("Measuring for %ds%n", durationSeconds);
+            Map<Operation, OperationStats> stats = drive(durationSeconds);
+            Map<String, Double> after = serverStats();
+
+            Map<String, Object> report = report(stats, before, after);
+            Files.createDirectories(out.toAbsolutePath().getParent());
+            mapper.writeValue(out.toFile(), report);
+            System.out.println(mapper.writeValueAsString(report));
+            System.out.println("Report written to " + out.toAbsolutePath());
+            return report;
+        } finally {
+            if (server != null) {
+                server.destroy();
+                if (!server.waitFor(15, TimeUnit.SECONDS)) {
+                    server.destroyForcibly();
+                }
+            }
+        }
+    }
+
+    private Process startServer() throws Exception {
+        Path seedDir = Files.createTempDirectory("city-seed");
+        seedDir.toFile().deleteOnExit();
+        Path migration = seedDir.resolve("V9000__synthetic_city.sql");
+        SyntheticCity.generate(spotCount, clusters, seed).writeMigration(migration);
+        migration.toFile().deleteOnExit();
+
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-Xmx" + serverHeap);
+        if (!serverJvmArgs.isBlank()) {
+            command.addAll(Arrays.asList(serverJvmArgs.trim().split("\\s+")));
+        }
+        command.addAll(List.of("-cp", System.getProperty("java.class.path"), SmartParkingApplication.class.getName(),
+                "--spring.profiles.active=h2",
+                "--server.port=" + port,
+                "--spring.flyway.locations=classpath:db/migration/{vendor},filesystem:" + seedDir.toAbsolutePath(),
+                "--spring.jpa.show-sql=false",
+                "--spatial.engine=memory",
+                "--rate-limit.enabled=false",
+                // Tokens are issued once at setup and must outlive the run
+                "--jwt.expiration=" + (warmupSeconds + durationSeconds + 600),
+                "--logging.level.com.smart.parking=INFO",
+                "--management.endpoints.web.exposure.include=health,metrics,hotpaths"));
+
+        Path log = out.toAbsolutePath().resolveSibling("city-server.log");
+        Files.createDirectories(log.getParent());
+        System.out.printf("Starting server on port %d with %d synthetic spots (log: %s)%n", port, spotCount, log);
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+    }
+
+    private void awaitHealthy(Process server) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            if (server != null && !server.isAlive()) {
+                throw new IllegalStateException("Server exited with " + server.exitValue() + ", see city-server.log");
+            }
+            try {
+                if (send(get("/actuator/health"), HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (Exception e) {
+                // Not listening yet
+            }
+            TimeUnit.MILLISECONDS.sleep(250);
+        }
+        throw new IllegalStateException("Server at " + baseUrl + " did not become healthy");
+    }
+
+    private void loadSpots() throws Exception {
+        JsonNode spots = mapper.readTree(send(get("/parking-spots"), HttpResponse.BodyHandlers.ofString()).body());
+        locations = new ArrayList<>(spots.size());
+        spotIds = new long[spots.size()];
+        int i = 0;
+        for (JsonNode spot : spots) {
+            spotIds[i++] = spot.get("id").asLong();
+            locations.add(new double[]{spot.get("latitude").asDouble(), spot.get("longitude").asDouble()});
+        }
+        if (locations.isEmpty()) {
+            throw new IllegalStateException("No parking spots at " + baseUrl + "/parking-spots");
+        }
+        System.out.printf("Loaded %d spots%n", locations.size());
+    }
+
+    private void registerUsers() throws Exception {
+        tokens = new ArrayList<>(userCount);
+        emails = new ArrayList<>(userCount);
+        String run = Long.toString(System.currentTimeMillis(), 36);
+        for (int i = 0; i < userCount; i++) {
+            String email = "loadtest-" + run + "-" + i + "@example.com";
+            String body = mapper.writeValueAsString(Map.of("fullName", "Load Test " + i, "email", email, "password", PASSWORD));
+            HttpResponse<String> response = send(post("/api/auth/register", body, null), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Registration failed (" + response.statusCode() + "): " + response.body());
+            }
+            emails.add(email);
+            tokens.add(mapper.readTree(response.body()).get("token").asText());
+        }
+    }
+
+    private Map<Operation, OperationStats> drive(int seconds) throws Exception {
+        int totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+        Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+        mix.forEach((operation, weight) -> {
+            if (weight > 0) {
+                stats.put(operation, new OperationStats(Math.max(1_000, (int) ((long) maxSamples * weight / totalWeight))));
+            }
+        });
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            int worker = t;
+            futures.add(workers.submit(() -> {
+                Random random = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline) {
+                    Operation operation = pick(random, totalWeight);
+                    OperationStats operationStats = stats.get(operation);
+                    HttpRequest request = request(operation, worker, random);
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<byte[]> response = send(request, HttpResponse.BodyHandlers.ofByteArray());
+                        operationStats.record(System.nanoTime() - start, response.statusCode());
+                        operationStats.bytes.addAndGet(response.body().length);
+                    } catch (Exception e) {
+                        operationStats.failures.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        workers.shutdown();
+        return stats;
+    }
+
+    private HttpRequest request(Operation operation, int worker, Random random) {
+        return switch (operation) {
+            case NEARBY -> {
+                double[] origin = SyntheticCity.origin(locations, random, 200);
+                yield get(String.format(Locale.ROOT, "/parking-spots/nearby?latitude=%.6f&longitude=%.6f&radius=%.0f&sort=distance",
+                        origin[0], origin[1], nearbyRadius), acceptEncoding);
+            }
+            case VIEWPORT -> {
+                double[] origin = SyntheticCity.origin(locations, random, 500);
+                yield get(String.format(Locale.ROOT, "/parking-spots/available/nearby?latitude=%.6f&longitude=%.6f&radius=%.0f",
+                        origin[0], origin[1], viewportRadius), acceptEncoding);
+            }
+            case REPORT -> post("/parking-spots/" + spotIds[random.nextInt(spotIds.length)] + "/report?available="
+                    + random.nextBoolean(), null, tokens.get(worker % tokens.size()));
+            case LOGIN -> post("/api/auth/login", "{\"email\":\"" + emails.get(worker % emails.size())
+                    + "\",\"password\":\"" + PASSWORD + "\"}", null);
+            case LIST -> get("/parking-spots", acceptEncoding);
+        };
+    }
+
+    private Operation pick(Random random, int totalWeight) {
+        int target = random.nextInt(totalWeight);
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            target -= entry.getValue();
+            if (target < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Empty mix");
+    }
+
+    /**
+     * Cumulative server-side counters from the actuator; NaN when a meter is missing or not exposed.
+     */
+    private Map<String, Double> serverStats() {
+        Map<String, Double> stats = new LinkedHashMap<>();
+        stats.put("gcPauses", metric("jvm.gc.pause", "COUNT"));
+        stats.put("gcPauseSeconds", metric("jvm.gc.pause", "TOTAL_TIME"));
+        stats.put("gcPauseMaxSeconds", metric("jvm.gc.pause", "MAX"));
+        stats.put("allocatedBytes", metric("jvm.gc.memory.allocated", "COUNT"));
+        stats.put("heapUsedBytes", metric("jvm.memory.used?tag=area:heap", "VALUE"));
+        stats.put("heapMaxBytes", metric("jvm.memory.max?tag=area:heap", "VALUE"));
+        stats.put("liveDataBytes", metric("jvm.gc.live.data.size", "VALUE"));
+        stats.put("processCpuUsage", metric("process.cpu.usage", "VALUE"));
+        return stats;
+    }
+
+    private double metric(String name, String statistic) {
+        try {
+            HttpResponse<String> response = send(get("/actuator/metrics/" + name), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                return Double.NaN;
+            }
+            for (JsonNode measurement : mapper.readTree(response.body()).path("measurements")) {
+                if (statistic.equals(measurement.path("statistic").asText())) {
+                    return measurement.path("value").asDouble();
+                }
+            }
+        } catch (Exception e) {
+            // Reported as missing
+        }
+        return Double.NaN;
+    }
+
+    private Map<String, Object> report(Map<Operation, OperationStats> stats, Map<String, Double> before,
+                                       Map<String, Double> after) throws Exception {
+        LatencyRecorder all = new LatencyRecorder(maxSamples);
+        long requests = 0;
+        long errors = 0;
+        long throttled = 0;
+        Map<String, Object> operations = new LinkedHashMap<>();
+        for (Map.Entry<Operation, OperationStats> entry : stats.entrySet()) {
+            OperationStats operation = entry.getValue();
+            operation.latency.copyTo(all);
+            long count = operation.requests();
+            requests += count;
+            errors += operation.errors();
+            throttled += operation.throttled.get();
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("requests", count);
+            summary.put("rps", count / (double) durationSeconds);
+            summary.put("status2xx", operation.ok.get());
+            summary.put("status4xx", operation.clientErrors.get());
+            summary.put("status429", operation.throttled.get());
+            summary.put("status5xx", operation.serverErrors.get());
+            summary.put("failures", operation.failures.get());
+            summary.put("bytesPerResponse", count == 0 ? Double.NaN : operation.bytes.get() / (double) count);
+            summary.put("latencyMillis", operation.latency.summaryMillis());
+            operations.put(entry.getKey().key(), summary);
+        }
+
+        double rps = requests / (double) durationSeconds;
+        double errorRatio = requests == 0 ? 1.0 : errors / (double) requests;
+        double throttledRatio = requests == 0 ? 0.0 : throttled / (double) requests;
+        Map<String, Double> overall = all.summaryMillis();
+
+        Map<String, Object> server = new LinkedHashMap<>();
+        double gcSeconds = after.get("gcPauseSeconds") - before.get("gcPauseSeconds");
+        double allocated = after.get("allocatedBytes") - before.get("allocatedBytes");
+        server.put("gcPauses", after.get("gcPauses") - before.get("gcPauses"));
+        server.put("gcPauseMillis", gcSeconds * 1000);
+        server.put("gcPauseMaxMillis", after.get("gcPauseMaxSeconds") * 1000);
+        server.put("gcTimeRatio", gcSeconds / durationSeconds);
+        server.put("allocatedMb", allocated / (1024 * 1024));
+        server.put("allocationMbPerSec", allocated / (1024 * 1024) / durationSeconds);
+        server.put("allocatedBytesPerRequest", requests == 0 ? Double.NaN : allocated / requests);
+        server.put("heapUsedMb", after.get("heapUsedBytes") / (1024 * 1024));
+        server.put("heapMaxMb", after.get("heapMaxBytes") / (1024 * 1024));
+        server.put("liveDataMb", after.get("liveDataBytes") / (1024 * 1024));
+        server.put("processCpuUsage", after.get("processCpuUsage"));
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("harness", "city");
+        report.put("timestamp", Instant.now().toString());
+        report.put("parameters", parameters);
+        report.put("spots", spotIds.length);
+        report.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+        report.put("requests", requests);
+        report.put("rps", rps);
+        report.put("errorRatio", errorRatio);
+        report.put("throttledRatio", throttledRatio);
+        report.put("latencyMillis", overall);
+        report.put("operations", operations);
+        report.put("server", server);
+        try {
+            report.put("serverHotPaths", mapper.readTree(send(get("/actuator/hotpaths"), HttpResponse.BodyHandlers.ofString()).body()));
+        } catch (Exception e) {
+            report.put("serverHotPaths", null);
+        }
+
+        boolean passed = errorRatio <= maxErrorRatio && throttledRatio <= maxThrottledRatio;
+        if (minRps > 0) {
+            passed &= rps >= minRps;
+        }
+        if (maxP99Ms > 0) {
+            passed &= overall.getOrDefault("p99", Double.MAX_VALUE) <= maxP99Ms;
+        }
+        report.put("passed", passed);
+        return report;
+    }
+
+    private HttpRequest get(String path) {
+        return get(path, "");
+    }
+
+    private HttpRequest get(String path, String encoding) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Accept", "application/json")
+                .GET();
+        if (!encoding.isEmpty()) {
+            builder.header("Accept-Encoding", encoding);
+        }
+        return builder.build();
+    }
+
+    private HttpRequest post(String path, String json, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .POST(json == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(json));
+        if (json != null) {
+            builder.header("Content-Type", "application/json");
+        }
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder.build();
+    }
+
+    private <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler) throws Exception {
+        return http.send(request, handler);
+    }
+
+    private static Map<Operation, Integer> parseMix(String spec) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String part : spec.split(",")) {
+            String[] pair = part.trim().split(":");
+            Operation operation = Operation.valueOf(pair[0].trim().toUpperCase(Locale.ROOT));
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight in --mix: " + part);
+            }
+            weights.put(operation, weight);
+        }
+        if (weights.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("--mix needs at least one positive weight");
+        }
+        return weights;
+    }
+
+    private static final class OperationStats {
+
+        private final LatencyRecorder latency;
+        private final AtomicLong ok = new AtomicLong();
+        private final AtomicLong clientErrors = new AtomicLong();
+        private final AtomicLong throttled = new AtomicLong();
+        private final AtomicLong serverErrors = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong bytes = new AtomicLong();
+
+        private OperationStats(int capacity) {
+            this.latency = new LatencyRecorder(capacity);
+        }
+
+        private void record(long nanos, int status) {
+            latency.record(nanos);
+            if (status < 400) {
+                ok.incrementAndGet();
+            } else if (status == 429) {
+                throttled.incrementAndGet();
+            } else if (status < 500) {
+                clientErrors.incrementAndGet();
+            } else {
+                serverErrors.incrementAndGet();
+            }
+        }
+
+        private long requests() {
+            return ok.get() + clientErrors.get() + throttled.get() + serverErrors.get() + failures.get();
+        }
+
+        private long errors() {
+            return clientErrors.get() + serverErrors.get() + failures.get();
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package com.smart.parking.backend.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.smart.parking.backend.config.RegionProperties;
+import com.smart.parking.backend.model.SpotHold;
+import com.smart.parking.backend.repository.SpotHoldRepository;
+import com.smart.parking.backend.service.RegionRouter;
+import com.smart.parking.backend.service.SpotHoldTable;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thundering herd on the last free spots of an area: {@code --attempts} drivers, released together from a
+ * start gate on virtual threads, each try to hold one of {@code --spots} spots. Runs the claim path
+ * {@code POST /parking-spots/{id}/hold} uses ({@link SpotHoldTable}) and, for comparison, the
+ * row-lock approach it replaces ({@code SELECT ... FOR UPDATE} and {@code UPDATE} in one transaction on
+ * in-memory H2, through a {@code --pool-size} connection pool). Reports latency percentiles, wall time and
+ * winners per spot, then the write-behind flush that persists the table's outcome. Exits 1 if a spot was
+ * given to more than one driver or a contested spot to none.
+ * <pre>
+ * mvn -Ploadtest test-compile exec:exec -Dloadtest.main=com.smart.parking.backend.loadtest.HoldContentionLoadTest \
+ *     -Dloadtest.args="--attempts=5000 --spots=20"
+ * </pre>
+ * Options: {@code --strategies} ({@code table}, {@code row-lock}, comma-separated), {@code --rounds}
+ * (the first one is warmup), {@code --seed}, {@code --out}. The spot lookup before a claim (served from
+ * the spot cache) and HTTP are not included.
+ */
+public class HoldContentionLoadTest {
+
+    private static final String REGION = "default";
+
+    private final ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final int attempts;
+    private final int spots;
+    private final List<String> strategies;
+    private final int poolSize;
+    private final int rounds;
+    private final long seed;
+    private final Path out;
+    private final Map<String, Object> parameters;
+
+    public HoldContentionLoadTest(LoadTestArgs args) {
+        this.attempts = args.integer("attempts", 5_000);
+        this.spots = args.integer("spots", 20);
+        this.strategies = List.of(args.string("strategies", "table,row-lock").split(","));
+        this.poolSize = args.integer("pool-size", 10);
+        this.rounds = Math.max(2, args.integer("rounds", 3));
+        this.seed = args.longValue("seed", 42);
+        this.out = Path.of(args.string("out", "target/loadtest/hold-contention.json"));
+        this.parameters = args.resolved();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, Object> report = new HoldContentionLoadTest(new LoadTestArgs(args)).run();
+        System.exit(Boolean.FALSE.equals(report.get("passed")) ? 1 : 0);
+    }
+
+    Map<String, Object> run() throws Exception {
+        Map<String, Object> results = new LinkedHashMap<>();
+        boolean passed = true;
+        for (String strategy : strategies) {
+            List<Map<String, Object>> measured = new ArrayList<>();
+            for (int round = 0; round < rounds; round++) {
+                Map<String, Object> result = switch (strategy.trim()) {
+                    case "table" -> new TableClaims().round(round);
+                    case "row-lock" -> {
+                        try (RowLockClaims claims = new RowLockClaims()) {
+                            yield claims.round(round);
+                        }
+                    }
+                    default -> throw new IllegalArgumentException("Unknown strategy: " + strategy);
+                };
+                System.out.printf("%s round %d: %s%n", strategy, round, result.get("summary"));
+                passed &= Boolean.TRUE.equals(result.get("consistent"));
+                if (round > 0) {
+                    measured.add(result);
+                }
+            }
+            results.put(strategy.trim(), measured);
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("harness", "hold-contention");
+        report.put("timestamp", Instant.now().toString());
+        report.put("parameters", parameters);
+        report.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+        report.put("results", results);
+        report.put("passed", passed);
+        Files.createDirectories(out.toAbsolutePath().getParent());
+        mapper.writeValue(out.toFile(), report);
+        System.out.println("Report written to " + out.toAbsolutePath());
+        return report;
+    }
+
+    /**
+     * Fires every attempt at once and tallies the outcome; {@code claim} returns true when the driver got
+     * the spot.
+     */
+    private Map<String, Object> herd(int round, Claim claim) throws Exception {
+        Random random = new Random(seed + round);
+        long[] targets = new long[attempts];
+        for (int i = 0; i < attempts; i++) {
+            targets[i] = 1 + random.nextInt(spots);
+        }
+
+        LatencyRecorder latency = new LatencyRecorder(attempts);
+        Map<Long, AtomicInteger> winners = new ConcurrentHashMap<>();
+        AtomicLong lost = new AtomicLong();
+        AtomicLong failures = new AtomicLong();
+        CountDownLatch gate = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>(attempts);
+        long elapsed;
+        try (ExecutorService drivers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < attempts; i++) {
+                long spotId = targets[i];
+                long userId = (long) round * attempts + i + 1;
+                futures.add(drivers.submit(() -> {
+                    gate.await();
+                    long start = System.nanoTime();
+                    try {
+                        if (claim.attempt(spotId, userId)) {
+                            winners.computeIfAbsent(spotId, k -> new AtomicInteger()).incrementAndGet();
+                        } else {
+                            lost.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                    }
+                    latency.record(System.nanoTime() - start);
+                    return null;
+                }));
+            }
+            long start = System.nanoTime();
+            gate.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            elapsed = System.nanoTime() - start;
+        }
+
+        long contested = Arrays.stream(targets).distinct().count();
+        long doubleAllocations = winners.values().stream().mapToInt(AtomicInteger::get).filter(n -> n > 1)
+                .mapToLong(n -> n - 1).sum();
+        boolean consistent = doubleAllocations == 0 && winners.size() == contested && failures.get() == 0;
+
+        Map<String, Double> latencyMillis = latency.summaryMillis();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("attempts", attempts);
+        result.put("contestedSpots", contested);
+        result.put("won", winners.size());
+        result.put("lost", lost.get());
+        result.put("failures", failures.get());
+        result.put("doubleAllocations", doubleAllocations);
+        result.put("consistent", consistent);
+        result.put("wallMillis", elapsed / 1e6);
+        result.put("attemptsPerSec", attempts / (elapsed / 1e9));
+        result.put("latencyMillis", latencyMillis);
+        result.put("summary", String.format("won=%d lost=%d failures=%d double=%d wall=%.1fms p50=%.3fms p99=%.3fms",
+                winners.size(), lost.get(), failures.get(), doubleAllocations, elapsed / 1e6,
+                latencyMillis.getOrDefault("p50", Double.NaN), latencyMillis.getOrDefault("p99", Double.NaN)));
+        return result;
+    }
+
+    @FunctionalInterface
+    private interface Claim {
+        boolean attempt(long spotId, long userId) throws Exception;
+    }
+
+    private final class TableClaims {
+
+        private final AtomicLong rowsSaved = new AtomicLong();
+        private final AtomicLong rowsDeleted = new AtomicLong();
+        private final AtomicInteger batches = new AtomicInteger();
+        private final SpotHoldTable table;
+
+        private TableClaims() {
+            // Write-behind target: counts what a flush would send to spot_holds
+            SpotHoldRepository repository = (SpotHoldRepository) Proxy.newProxyInstance(
+                    SpotHoldRepository.class.getClassLoader(), new Class<?>[]{SpotHoldRepository.class},
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "findByExpiresAtAfter" -> List.of();
+                        case "saveAll" -> {
+                            batches.incrementAndGet();
+                            List<SpotHold> rows = new ArrayList<>();
+                            ((Iterable<?>) args[0]).forEach(row -> rows.add((SpotHold) row));
+                            rowsSaved.addAndGet(rows.size());
+                            yield rows;
+                        }
+                        case "deleteAllByIdInBatch" -> {
+                            batches.incrementAndGet();
+                            ((Iterable<?>) args[0]).forEach(id -> rowsDeleted.incrementAndGet());
+                            yield null;
+                        }
+                        case "deleteExpired" -> 0;
+                        case "toString" -> "SpotHoldRepository stub";
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    });
+            this.table = new SpotHoldTable(repository, new RegionRouter(RegionProperties.defaults()),
+                    event -> {
+                    }, new SimpleMeterRegistry());
+        }
+
+        Map<String, Object> round(int round) throws Exception {
+            Map<String, Object> result = herd(round, (spotId, userId) ->
+                    table.claim(spotId, REGION, userId, Duration.ofMinutes(10)).userId() == userId);
+            long start = System.nanoTime();
+            table.flush();
+            Map<String, Object> writeBehind = new LinkedHashMap<>();
+            writeBehind.put("flushMillis", (System.nanoTime() - start) / 1e6);
+            writeBehind.put("batches", batches.get());
+            writeBehind.put("rowsSaved", rowsSaved.get());
+            writeBehind.put("rowsDeleted", rowsDeleted.get());
+            result.put("writeBehind", writeBehind);
+            return result;
+        }
+    }
+
+    private final class RowLockClaims implements AutoCloseable {
+
+        private final HikariDataSource dataSource;
+
+        private RowLockClaims() throws Exception {
+            HikariConfig config = new HikariConfig();
+            config.setJdbcUrl("jdbc:h2:mem:hold-contention-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=60000");
+            config.setUsername("sa");
+            config.setMaximumPoolSize(poolSize);
+            config.setConnectionTimeout(60_000);
+            this.dataSource = new HikariDataSource(config);
+            try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE spots (id BIGINT PRIMARY KEY, held_by BIGINT, held_until TIMESTAMP)");
+                statement.execute("INSERT INTO spots (id) SELECT x FROM SYSTEM_RANGE(1, " + spots + ")");
+            }
+        }
+
+        Map<String, Object> round(int round) throws Exception {
+            return herd(round, this::claim);
+        }
+
+        private boolean claim(long spotId, long userId) throws Exception {
+            Instant now = Instant.now();
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(false);
+                try {
+                    boolean free;
+                    try (PreparedStatement select = connection.prepareStatement(
+                            "SELECT held_by, held_until FROM spots WHERE id = ? FOR UPDATE")) {
+                        select.setLong(1, spotId);
+                        try (ResultSet rs = select.executeQuery()) {
+                            rs.next();
+                            Timestamp heldUntil = rs.getTimestamp(2);
+                            free = heldUntil == null || heldUntil.toInstant().isBefore(now);
+                        }
+                    }
+                    if (free) {
+                        try (PreparedStatement update = connection.prepareStatement(
+                                "UPDATE spots SET held_by = ?, held_until = ? WHERE id = ?")) {
+                            update.setLong(1, userId);
+                            update.setTimestamp(2, Timestamp.from(now.plus(Duration.ofMinutes(10))));
+                            update.setLong(3, spotId);
+                            update.executeUpdate();
+                        }
+                    }
+                    connection.commit();
+                    return free;
+                } catch (Exception e) {
+                    connection.rollback();
+                    throw e;
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            dataSource.close();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.smart.parking.backend.loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free fixed-capacity latency sink. Samples beyond the capacity are counted but not kept,
+ * so a misconfigured run cannot exhaust the heap.
+ */
+public class LatencyRecorder {
+
+    private final long[] samples;
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+
+    public LatencyRecorder(int capacity) {
+        this.samples = new long[capacity];
+    }
+
+    public void record(long nanos) {
+        int index = size.getAndIncrement();
+        if (index < samples.length) {
+            samples[index] = nanos;
+        } else {
+            dropped.incrementAndGet();
+        }
+    }
+
+    public int count() {
+        return Math.min(size.get(), samples.length);
+    }
+
+    /**
+     * Adds the kept samples to {@code target}, e.g. to summarize several recorders together.
+     */
+    public void copyTo(LatencyRecorder target) {
+        int n = count();
+        for (int i = 0; i < n; i++) {
+            target.record(samples[i]);
+        }
+    }
+
+    /**
+     * Percentiles in milliseconds, keyed p50/p90/p99/p99.9 plus min/mean/max.
+     */
+    public Map<String, Double> summaryMillis() {
+        int n = count();
+        Map<String, Double> summary = new LinkedHashMap<>();
+        summary.put("count", (double) n);
+        summary.put("dropped", (double) dropped.get());
+        if (n == 0) {
+            return summary;
+        }
+        long[] sorted = Arrays.copyOf(samples, n);
+        Arrays.sort(sorted);
+        double sum = 0;
+        for (long v : sorted) {
+            sum += v;
+        }
+        summary.put("min", millis(sorted[0]));
+        summary.put("mean", sum / n / 1_000_000.0);
+        summary.put("p50", millis(percentile(sorted, 50)));
+        summary.put("p90", millis(percentile(sorted, 90)));
+        summary.put("p99", millis(percentile(sorted, 99)));
+        summary.put("p99.9", millis(percentile(sorted, 99.9)));
+        summary.put("max", millis(sorted[n - 1]));
+        return summary;
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+}
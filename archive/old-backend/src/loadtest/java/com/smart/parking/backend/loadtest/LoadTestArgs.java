@@ -0,0 +1,53 @@
+package com.smart.parking.backend.loadtest;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Parses {@code --key=value} arguments. Every harness echoes the resolved values into its report
+ * so a run can be repeated exactly.
+ */
+public class LoadTestArgs {
+
+    private final Map<String, String> values = new HashMap<>();
+    private final Map<String, Object> resolved = new LinkedHashMap<>();
+
+    public LoadTestArgs(String[] args) {
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --key=value, got: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            values.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+    }
+
+    public String string(String key, String defaultValue) {
+        String value = values.getOrDefault(key, defaultValue);
+        resolved.put(key, value);
+        return value;
+    }
+
+    public int integer(String key, int defaultValue) {
+        int value = values.containsKey(key) ? Integer.parseInt(values.get(key)) : defaultValue;
+        resolved.put(key, value);
+        return value;
+    }
+
+    public long longValue(String key, long defaultValue) {
+        long value = values.containsKey(key) ? Long.parseLong(values.get(key)) : defaultValue;
+        resolved.put(key, value);
+        return value;
+    }
+
+    public double decimal(String key, double defaultValue) {
+        double value = values.containsKey(key) ? Double.parseDouble(values.get(key)) : defaultValue;
+        resolved.put(key, value);
+        return value;
+    }
+
+    public Map<String, Object> resolved() {
+        return resolved;
+    }
+}
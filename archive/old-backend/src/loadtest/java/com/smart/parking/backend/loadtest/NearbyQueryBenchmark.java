@@ -0,0 +1,175 @@
+package com.smart.parking.backend.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.smart.parking.backend.repository.ParkingSpotRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Latency of the nearby queries against a large synthetic {@code parking_spots} table at several radii,
+ * comparing the repository's queries on the stored {@code location_geog} column with the previous form
+ * that cast {@code location::geography} per row.
+ * <pre>
+ * mvn -Ploadtest test-compile exec:exec -Dloadtest.main=com.smart.parking.backend.loadtest.NearbyQueryBenchmark \
+ *     -Dloadtest.args="--jdbc-url=jdbc:postgresql://localhost:5432/smart_parking --user=postgres --password=..."
+ * </pre>
+ * Options: {@code --rows} (default 1,000,000), {@code --available-ratio}, {@code --radii} (meters,
+ * comma-separated), {@code --iterations} and {@code --warmup} per query and radius,
+ * {@code --cast-iterations} (the cast form scans the whole table, so it gets fewer), {@code --schema},
+ * {@code --keep}, {@code --out}. Query centers are drawn from a fixed seed, so runs are comparable.
+ */
+public class NearbyQueryBenchmark {
+
+    // The form used before V4; there is no index on this expression any more
+    private static final String CAST_QUERY = "SELECT * FROM parking_spots p WHERE ST_DWithin(p.location::geography, ST_SetSRID(ST_MakePoint(:longitude, :latitude), 4326)::geography, :distance)";
+
+    private static final List<String> REPOSITORY_METHODS = List.of(
+            "findNearby", "findAvailableNearby", "findNearbyOrderByDistance", "findAvailableNearbyOrderByDistance");
+
+    private static final Pattern NAMED_PARAMETER = Pattern.compile("(?<!:):(\\w+)");
+
+    private final ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final String jdbcUrl;
+    private final String user;
+    private final String password;
+    private final int rows;
+    private final double availableRatio;
+    private final double[] radii;
+    private final int iterations;
+    private final int warmup;
+    private final int castIterations;
+    private final String schema;
+    private final boolean keep;
+    private final Path out;
+    private final Map<String, Object> parameters;
+
+    public NearbyQueryBenchmark(LoadTestArgs args) {
+        this.jdbcUrl = args.string("jdbc-url", "jdbc:postgresql://localhost:5432/smart_parking");
+        this.user = args.string("user", "postgres");
+        this.password = args.string("password", "");
+        this.rows = args.integer("rows", 1_000_000);
+        this.availableRatio = args.decimal("available-ratio", 0.1);
+        this.radii = Arrays.stream(args.string("radii", "100,250,500,1000,2000,5000").split(","))
+                .mapToDouble(Double::parseDouble)
+                .toArray();
+        this.iterations = args.integer("iterations", 200);
+        this.warmup = args.integer("warmup", 20);
+        this.castIterations = args.integer("cast-iterations", 10);
+        this.schema = args.string("schema", "nearby_bench");
+        this.keep = Boolean.parseBoolean(args.string("keep", "false"));
+        this.out = Path.of(args.string("out", "target/loadtest/nearby-query-report.json"));
+        this.parameters = args.resolved();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new NearbyQueryBenchmark(new LoadTestArgs(args)).run();
+    }
+
+    Map<String, Object> run() throws Exception {
+        Map<String, Object> results = new LinkedHashMap<>();
+        try (ScratchSchema scratch = new ScratchSchema(jdbcUrl, user, password, schema, keep)) {
+            scratch.seed(rows, availableRatio);
+            Connection connection = scratch.connection();
+
+            Map<String, String> queries = new LinkedHashMap<>();
+            for (String method : REPOSITORY_METHODS) {
+                queries.put(method, repositoryQuery(method));
+            }
+            queries.put("castPerRow (before V4)", CAST_QUERY);
+
+            for (Map.Entry<String, String> query : queries.entrySet()) {
+                boolean cast = query.getValue().equals(CAST_QUERY);
+                Map<String, Object> byRadius = new LinkedHashMap<>();
+                for (double radius : radii) {
+                    byRadius.put(String.valueOf((long) radius), measure(connection, query.getKey(), query.getValue(), radius,
+                            cast ? Math.min(warmup, 2) : warmup, cast ? castIterations : iterations));
+                }
+                results.put(query.getKey(), byRadius);
+            }
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("parameters", parameters);
+        report.put("results", results);
+        Files.createDirectories(out.toAbsolutePath().getParent());
+        mapper.writeValue(out.toFile(), report);
+        System.out.println("Report written to " + out.toAbsolutePath());
+        return report;
+    }
+
+    private Map<String, Object> measure(Connection connection, String label, String namedSql, double radius,
+                                        int warmupRuns, int runs) throws SQLException {
+        List<String> names = new ArrayList<>();
+        Matcher matcher = NAMED_PARAMETER.matcher(namedSql);
+        while (matcher.find()) {
+            names.add(matcher.group(1));
+        }
+        String sql = matcher.replaceAll("?");
+
+        Random random = new Random(42);
+        LatencyRecorder latency = new LatencyRecorder(runs);
+        long totalRows = 0;
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < warmupRuns + runs; i++) {
+                // Keep centers far enough inside the seeded area that every circle is fully populated
+                double latitude = ScratchSchema.MIN_LAT + 0.05 + random.nextDouble() * (ScratchSchema.MAX_LAT - ScratchSchema.MIN_LAT - 0.1);
+                double longitude = ScratchSchema.MIN_LNG + 0.06 + random.nextDouble() * (ScratchSchema.MAX_LNG - ScratchSchema.MIN_LNG - 0.12);
+                for (int p = 0; p < names.size(); p++) {
+                    if ("region".equals(names.get(p))) {
+                        // Seeded rows all fall in the default region
+                        statement.setString(p + 1, "default");
+                        continue;
+                    }
+                    statement.setDouble(p + 1, switch (names.get(p)) {
+                        case "latitude" -> latitude;
+                        case "longitude" -> longitude;
+                        case "distance" -> radius;
+                        default -> throw new IllegalStateException("No value for :" + names.get(p));
+                    });
+                }
+                long start = System.nanoTime();
+                int count = 0;
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        count++;
+                    }
+                }
+                if (i >= warmupRuns) {
+                    latency.record(System.nanoTime() - start);
+                    totalRows += count;
+                }
+            }
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>(latency.summaryMillis());
+        result.put("avgRows", runs == 0 ? 0 : (double) totalRows / runs);
+        System.out.printf("%-40s r=%5.0fm  p50=%8.2fms  p99=%8.2fms  rows=%.0f%n", label, radius, result.getOrDefault("p50", 0.0), result.getOrDefault("p99", 0.0), result.get("avgRows"));
+        return result;
+    }
+
+    private static String repositoryQuery(String method) {
+        return Arrays.stream(ParkingSpotRepository.class.getDeclaredMethods())
+                .filter(m -> m.getName().equals(method))
+                .map(m -> m.getAnnotation(Query.class))
+                .filter(q -> q != null && q.nativeQuery())
+                .map(Query::value)
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No native @Query for ParkingSpotRepository." + method));
+    }
+}
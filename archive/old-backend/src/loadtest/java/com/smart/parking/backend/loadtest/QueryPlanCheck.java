@@ -0,0 +1,164 @@
+package com.smart.parking.backend.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.smart.parking.backend.repository.ParkingSpotRepository;
+import com.smart.parking.backend.repository.UserRepository;
+
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Applies the Flyway migrations to a scratch schema on a PostGIS database, seeds a large
+ * {@code parking_spots} table (few available spots, as at peak hours) and runs {@code EXPLAIN} on every
+ * repository query. Exits with code 1 if any of them plans a sequential scan of a seeded table, i.e. a
+ * query no index covers.
+ * <pre>
+ * mvn -Ploadtest test-compile exec:exec -Dloadtest.main=com.smart.parking.backend.loadtest.QueryPlanCheck \
+ *     -Dloadtest.args="--jdbc-url=jdbc:postgresql://localhost:5432/smart_parking --user=postgres --password=..."
+ * </pre>
+ * Options: {@code --rows}, {@code --available-ratio}, {@code --schema} (dropped and recreated),
+ * {@code --keep=true} (leave the schema for inspection), {@code --out}.
+ * <p>
+ * Every method is run through Hibernate and Spring Data ({@link RenderedQueries}), and the SQL and
+ * values it sent to the driver are what gets explained, so JPQL and derived queries are checked as
+ * rendered, not from a hand-written equivalent. A method with a parameter missing from
+ * {@link #SAMPLE_ARGUMENTS} fails the check. Queries that read the whole table by design are listed in
+ * {@link #FULL_SCANS}.
+ */
+public class QueryPlanCheck {
+
+    private static final List<Class<?>> REPOSITORIES = List.of(ParkingSpotRepository.class, UserRepository.class);
+
+    // By @Param name, or parameter name for derived queries
+    private static final Map<String, Object> SAMPLE_ARGUMENTS = Map.of(
+            "region", "default",
+            "regions", List.of("default"),
+            "id", 42L,
+            "latitude", 37.7749,
+            "longitude", -122.4194,
+            "distance", 500.0,
+            "email", "user42@example.com");
+
+    // Loaded once at startup to build the in-memory spatial index, or list a whole region (cached per
+    // data version); the region predicate still prunes them to that region's partitions
+    private static final Set<String> FULL_SCANS = Set.of(
+            "ParkingSpotRepository.findAllLocations",
+            "ParkingSpotRepository.findAllLocationsByRegionIn",
+            "ParkingSpotRepository.findAllByRegion");
+
+    private static final Set<String> SEEDED_TABLES = Set.of("parking_spots", "users");
+
+    private final ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final String jdbcUrl;
+    private final String user;
+    private final String password;
+    private final int rows;
+    private final double availableRatio;
+    private final String schema;
+    private final boolean keep;
+    private final Path out;
+    private final Map<String, Object> parameters;
+
+    public QueryPlanCheck(LoadTestArgs args) {
+        this.jdbcUrl = args.string("jdbc-url", "jdbc:postgresql://localhost:5432/smart_parking");
+        this.user = args.string("user", "postgres");
+        this.password = args.string("password", "");
+        this.rows = args.integer("rows", 500_000);
+        this.availableRatio = args.decimal("available-ratio", 0.01);
+        this.schema = args.string("schema", "plan_check");
+        this.keep = Boolean.parseBoolean(args.string("keep", "false"));
+        this.out = Path.of(args.string("out", "target/loadtest/query-plans.json"));
+        this.parameters = args.resolved();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, Object> report = new QueryPlanCheck(new LoadTestArgs(args)).run();
+        if (Boolean.FALSE.equals(report.get("passed"))) {
+            System.exit(1);
+        }
+    }
+
+    Map<String, Object> run() throws Exception {
+        try (ScratchSchema scratch = new ScratchSchema(jdbcUrl, user, password, schema, keep)) {
+            scratch.seed(rows, availableRatio);
+            return check(scratch.connection());
+        }
+    }
+
+    private Map<String, Object> check(Connection connection) throws Exception {
+        Map<String, Object> plans = new LinkedHashMap<>();
+        List<String> failures = new ArrayList<>();
+        try (RenderedQueries rendered = new RenderedQueries(connection)) {
+            for (Class<?> repository : REPOSITORIES) {
+                for (Method method : repository.getDeclaredMethods()) {
+                    String name = repository.getSimpleName() + "." + method.getName();
+                    List<RenderedQueries.Statement> statements = rendered.capture(repository, method, SAMPLE_ARGUMENTS);
+                    if (statements.isEmpty()) {
+                        failures.add(name + ": sent no SQL");
+                        continue;
+                    }
+                    for (RenderedQueries.Statement statement : statements) {
+                        JsonNode plan = explain(connection, statement);
+                        List<String> seqScans = new ArrayList<>();
+                        collectSeqScans(plan, seqScans);
+                        if (!seqScans.isEmpty() && !FULL_SCANS.contains(name)) {
+                            failures.add(name + ": Seq Scan on " + String.join(", ", seqScans));
+                        }
+                        Map<String, Object> entry = new LinkedHashMap<>();
+                        entry.put("sql", statement.sql());
+                        entry.put("seqScans", seqScans);
+                        entry.put("plan", plan);
+                        plans.put(statements.size() == 1 ? name : name + "#" + (statements.indexOf(statement) + 1), entry);
+                        System.out.printf("%-45s %s%n", name, seqScans.isEmpty() ? "ok (" + plan.path("Node Type").asText() + ")" : "SEQ SCAN " + seqScans);
+                    }
+                }
+            }
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("parameters", parameters);
+        report.put("failures", failures);
+        report.put("plans", plans);
+        report.put("passed", failures.isEmpty());
+        Files.createDirectories(out.toAbsolutePath().getParent());
+        mapper.writeValue(out.toFile(), report);
+        System.out.println(failures.isEmpty() ? "All repository queries use an index" : "FAILED:\n  " + String.join("\n  ", failures));
+        System.out.println("Report written to " + out.toAbsolutePath());
+        return report;
+    }
+
+    // Planned with the values Hibernate bound, as the driver would send them
+    private JsonNode explain(Connection connection, RenderedQueries.Statement statement) throws Exception {
+        try (PreparedStatement explain = connection.prepareStatement("EXPLAIN (FORMAT JSON) " + statement.sql())) {
+            statement.bind(explain);
+            try (ResultSet rs = explain.executeQuery()) {
+                rs.next();
+                return mapper.readTree(rs.getString(1)).get(0).get("Plan");
+            }
+        }
+    }
+
+    private static void collectSeqScans(JsonNode node, List<String> seqScans) {
+        // parking_spots is partitioned by region: scans are of its partitions, parking_spots_*
+        String relation = node.path("Relation Name").asText();
+        if ("Seq Scan".equals(node.path("Node Type").asText())
+                && (SEEDED_TABLES.contains(relation) || relation.startsWith("parking_spots_"))) {
+            seqScans.add(relation);
+        }
+        for (JsonNode child : node.path("Plans")) {
+            collectSeqScans(child, seqScans);
+        }
+    }
+}
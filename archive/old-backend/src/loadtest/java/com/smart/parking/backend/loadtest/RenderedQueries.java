@@ -0,0 +1,147 @@
+package com.smart.parking.backend.loadtest;
+
+import com.smart.parking.backend.model.ParkingSpot;
+import com.smart.parking.backend.model.User;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.orm.jpa.hibernate.SpringImplicitNamingStrategy;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.data.repository.query.Param;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs repository methods through Hibernate and Spring Data, as the application does, over a connection
+ * that records every statement on its way to the driver: the SQL Hibernate rendered and the values bound
+ * to it. Queries still execute, but fetch at most one row.
+ */
+final class RenderedQueries implements AutoCloseable {
+
+    /** One statement as sent to the driver; {@link #bind} replays its parameters onto another statement. */
+    record Statement(String sql, List<Binding> bindings) {
+
+        void bind(PreparedStatement target) throws Exception {
+            for (Binding binding : bindings) {
+                binding.setter().invoke(target, binding.args());
+            }
+        }
+    }
+
+    record Binding(Method setter, Object[] args) {
+    }
+
+    private final List<Statement> recorded = new ArrayList<>();
+    private final StandardServiceRegistry registry;
+    private final SessionFactory sessionFactory;
+    private final EntityManager entityManager;
+    private final JpaRepositoryFactory repositories;
+
+    RenderedQueries(Connection connection) {
+        this.registry = new StandardServiceRegistryBuilder()
+                .applySetting(AvailableSettings.JAKARTA_NON_JTA_DATASOURCE, dataSource(connection))
+                .applySetting(AvailableSettings.HBM2DDL_AUTO, "none")
+                // Spring Boot's defaults, so column names match the application's
+                .applySetting(AvailableSettings.PHYSICAL_NAMING_STRATEGY, new CamelCaseToUnderscoresNamingStrategy())
+                .applySetting(AvailableSettings.IMPLICIT_NAMING_STRATEGY, new SpringImplicitNamingStrategy())
+                .build();
+        this.sessionFactory = new MetadataSources(registry)
+                .addAnnotatedClass(ParkingSpot.class)
+                .addAnnotatedClass(User.class)
+                .buildMetadata()
+                .buildSessionFactory();
+        this.entityManager = sessionFactory.createEntityManager();
+        this.repositories = new JpaRepositoryFactory(entityManager);
+    }
+
+    /**
+     * Calls {@code method} with the sample value for each parameter (by {@code @Param} or parameter name)
+     * and returns the statements it sent.
+     */
+    List<Statement> capture(Class<?> repository, Method method, Map<String, Object> samples) throws Exception {
+        Parameter[] parameters = method.getParameters();
+        Object[] args = new Object[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            Param param = parameters[i].getAnnotation(Param.class);
+            String name = param != null ? param.value() : parameters[i].getName();
+            if (!samples.containsKey(name)) {
+                throw new IllegalStateException("No sample value for " + name + " in " + method);
+            }
+            args[i] = samples.get(name);
+        }
+        recorded.clear();
+        entityManager.clear();
+        try {
+            method.invoke(repositories.getRepository(repository), args);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException("Running " + method + " failed", e.getCause());
+        }
+        return List.copyOf(recorded);
+    }
+
+    @Override
+    public void close() {
+        entityManager.close();
+        sessionFactory.close();
+        StandardServiceRegistryBuilder.destroy(registry);
+    }
+
+    // Hands Hibernate the scratch connection; closing it only ends Hibernate's use of it
+    private DataSource dataSource(Connection connection) {
+        Connection shared = proxy(Connection.class, (proxy, method, args) -> switch (method.getName()) {
+            case "close" -> null;
+            case "isClosed" -> false;
+            case "prepareStatement" -> recording((PreparedStatement) invoke(connection, method, args), (String) args[0]);
+            default -> invoke(connection, method, args);
+        });
+        return proxy(DataSource.class, (proxy, method, args) -> switch (method.getName()) {
+            case "getConnection" -> shared;
+            case "isWrapperFor" -> false;
+            case "equals" -> args[0] == proxy;
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "toString" -> "RenderedQueries data source";
+            default -> throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    private PreparedStatement recording(PreparedStatement target, String sql) {
+        List<Binding> bindings = new ArrayList<>();
+        return proxy(PreparedStatement.class, (proxy, method, args) -> {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                bindings.add(new Binding(method, args.clone()));
+            } else if (name.equals("executeQuery") || name.equals("execute")) {
+                recorded.add(new Statement(sql, List.copyOf(bindings)));
+                target.setMaxRows(1);
+            }
+            return invoke(target, method, args);
+        });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(RenderedQueries.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+}
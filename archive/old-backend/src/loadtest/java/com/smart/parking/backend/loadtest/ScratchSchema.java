@@ -0,0 +1,88 @@
+package com.smart.parking.backend.loadtest;
+
+import org.flywaydb.core.Flyway;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * A throwaway PostgreSQL schema with the application's Flyway migrations applied and a synthetic city
+ * seeded into it, for harnesses that need realistic table sizes. The schema is dropped on close unless
+ * {@code keep} is set.
+ */
+public class ScratchSchema implements AutoCloseable {
+
+    // Seeded spots are spread over roughly 40 km x 40 km around San Francisco
+    public static final double MIN_LAT = 37.60;
+    public static final double MAX_LAT = 37.96;
+    public static final double MIN_LNG = -122.60;
+    public static final double MAX_LNG = -122.15;
+
+    private final Connection connection;
+    private final String schema;
+    private final boolean keep;
+
+    public ScratchSchema(String jdbcUrl, String user, String password, String schema, boolean keep) throws SQLException {
+        this.connection = DriverManager.getConnection(jdbcUrl, user, password);
+        this.schema = schema;
+        this.keep = keep;
+        execute("DROP SCHEMA IF EXISTS " + schema + " CASCADE");
+        execute("CREATE SCHEMA " + schema);
+        Flyway.configure()
+                .dataSource(jdbcUrl, user, password)
+                .schemas(schema)
+                .locations("classpath:db/migration/postgresql")
+                .load()
+                .migrate();
+        // PostGIS types and functions live in public
+        execute("SET search_path = " + schema + ", public");
+    }
+
+    public Connection connection() {
+        return connection;
+    }
+
+    /**
+     * Inserts {@code rows} spots, of which about {@code availableRatio} are available, and one user per ten
+     * spots, then refreshes planner statistics. Deterministic for a given row count and ratio.
+     */
+    public void seed(int rows, double availableRatio) throws SQLException {
+        long start = System.nanoTime();
+        execute("SELECT setseed(0.42)");
+        execute("""
+                INSERT INTO parking_spots (address, latitude, longitude, location, available, price)
+                SELECT 'Spot ' || g, lat, lng, ST_SetSRID(ST_MakePoint(lng, lat), 4326), random() < %s,
+                       round((1 + random() * 9)::numeric, 2)
+                FROM (SELECT g, %s + random() * %s AS lat, %s + random() * %s AS lng
+                      FROM generate_series(1, %d) g) s
+                """.formatted(availableRatio, MIN_LAT, MAX_LAT - MIN_LAT, MIN_LNG, MAX_LNG - MIN_LNG, rows));
+        execute("""
+                INSERT INTO users (full_name, email, password, updated_at)
+                SELECT 'User ' || g, 'user' || g || '@example.com', 'x', now()
+                FROM generate_series(1, %d) g
+                """.formatted(Math.max(1, rows / 10)));
+        execute("ANALYZE parking_spots");
+        execute("ANALYZE users");
+        System.out.printf("Seeded %d spots in %.1fs%n", rows, (System.nanoTime() - start) / 1e9);
+    }
+
+    public void execute(String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        try {
+            if (!keep) {
+                execute("RESET search_path");
+                execute("DROP SCHEMA IF EXISTS " + schema + " CASCADE");
+            }
+        } finally {
+            connection.close();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.smart.parking.backend.loadtest;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic city: spots packed into Gaussian clusters (downtown blocks, malls, stations) whose
+ * sizes fall off with rank, plus a sparse uniform background. Busier clusters are fuller and pricier.
+ * The same seed always yields the same city, so load-test runs are comparable.
+ */
+public class SyntheticCity {
+
+    // Roughly downtown San Francisco, same as the JMH data
+    static final double CENTER_LAT = 37.7749;
+    static final double CENTER_LNG = -122.4194;
+
+    private static final double METERS_PER_DEGREE = 111_195.08;
+    private static final double CITY_RADIUS_METERS = 8_000;
+    private static final double BACKGROUND_RATIO = 0.25;
+    private static final int INSERT_BATCH = 500;
+
+    public record Spot(double latitude, double longitude, boolean available, double price, String address) {
+    }
+
+    private record Cluster(double latitude, double longitude, double sigmaMeters, double weight) {
+    }
+
+    private final List<Spot> spots;
+
+    private SyntheticCity(List<Spot> spots) {
+        this.spots = spots;
+    }
+
+    public static SyntheticCity generate(int spotCount, int clusterCount, long seed) {
+        Random random = new Random(seed);
+        List<Cluster> clusters = new ArrayList<>(clusterCount);
+        double totalWeight = 0;
+        for (int i = 0; i < clusterCount; i++) {
+            double[] center = pointInDisk(random, CENTER_LAT, CENTER_LNG, CITY_RADIUS_METERS * 0.8);
+            double weight = 1.0 / Math.sqrt(i + 1);
+            clusters.add(new Cluster(center[0], center[1], 400 + random.nextDouble() * 800, weight));
+            totalWeight += weight;
+        }
+
+        List<Spot> spots = new ArrayList<>(spotCount);
+        for (int i = 0; i < spotCount; i++) {
+            double lat;
+            double lng;
+            double occupancy;
+            if (clusters.isEmpty() || random.nextDouble() < BACKGROUND_RATIO) {
+                double[] point = pointInDisk(random, CENTER_LAT, CENTER_LNG, CITY_RADIUS_METERS);
+                lat = point[0];
+                lng = point[1];
+                occupancy = 0.3;
+            } else {
+                int rank = pick(clusters, totalWeight, random);
+                Cluster cluster = clusters.get(rank);
+                lat = cluster.latitude() + random.nextGaussian() * cluster.sigmaMeters() / METERS_PER_DEGREE;
+                lng = cluster.longitude() + random.nextGaussian() * cluster.sigmaMeters() / metersPerDegreeLng(lat);
+                occupancy = 0.85 - 0.5 * rank / Math.max(1, clusterCount - 1);
+            }
+            double price = Math.round((1.0 + occupancy * 6 + random.nextInt(3)) * 2) / 2.0;
+            String address = (1 + random.nextInt(4000)) + " Synthetic St, block " + (i / 100);
+            spots.add(new Spot(lat, lng, random.nextDouble() >= occupancy, price, address));
+        }
+        return new SyntheticCity(spots);
+    }
+
+    public List<Spot> spots() {
+        return spots;
+    }
+
+    /**
+     * A search origin that follows spot density: a random spot, moved up to {@code jitterMeters}.
+     */
+    static double[] origin(List<double[]> locations, Random random, double jitterMeters) {
+        double[] spot = locations.get(random.nextInt(locations.size()));
+        return pointInDisk(random, spot[0], spot[1], jitterMeters);
+    }
+
+    /**
+     * Writes the spots as a Flyway migration (multi-row inserts) so the application seeds itself on startup.
+     */
+    public void writeMigration(Path file) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            for (int start = 0; start < spots.size(); start += INSERT_BATCH) {
+                writer.write("INSERT INTO parking_spots (address, latitude, longitude, available, price) VALUES\n");
+                int end = Math.min(spots.size(), start + INSERT_BATCH);
+                for (int i = start; i < end; i++) {
+                    Spot spot = spots.get(i);
+                    writer.write(String.format(Locale.ROOT, "('%s', %.7f, %.7f, %s, %.2f)%s%n",
+                            spot.address(), spot.latitude(), spot.longitude(), spot.available(), spot.price(),
+                            i == end - 1 ? ";" : ","));
+                }
+            }
+        }
+    }
+
+    private static int pick(List<Cluster> clusters, double totalWeight, Random random) {
+        double target = random.nextDouble() * totalWeight;
+        for (int i = 0; i < clusters.size(); i++) {
+            target -= clusters.get(i).weight();
+            if (target <= 0) {
+                return i;
+            }
+        }
+        return clusters.size() - 1;
+    }
+
+    private static double[] pointInDisk(Random random, double lat, double lng, double radiusMeters) {
+        double distance = radiusMeters * Math.sqrt(random.nextDouble());
+        double bearing = random.nextDouble() * 2 * Math.PI;
+        double pointLat = lat + distance * Math.cos(bearing) / METERS_PER_DEGREE;
+        return new double[]{pointLat, lng + distance * Math.sin(bearing) / metersPerDegreeLng(lat)};
+    }
+
+    private static double metersPerDegreeLng(double lat) {
+        return METERS_PER_DEGREE * Math.cos(Math.toRadians(lat));
+    }
+}
@@ -0,0 +1,237 @@
+package com.smart.parking.backend.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.smart.parking.backend.dto.ParkingSpotUpdateMessage;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Opens many STOMP-over-SockJS sessions against {@code /ws/parking}, drives availability reports through
+ * {@code POST /parking-spots/{id}/report} and measures report-to-receipt latency on
+ * {@code /topic/parking-updates} for every subscriber.
+ * <p>
+ * Start the backend first, then:
+ * <pre>
+ * mvn -Ploadtest test-compile exec:exec -Dloadtest.args="--clients=2000 --reports=200"
+ * </pre>
+ * Options: {@code --url}, {@code --clients}, {@code --reports}, {@code --spots} (number of spot ids taken
+ * from {@code GET /parking-spots}), {@code --interval-ms}, {@code --connect-batch}, {@code --drain-ms},
+ * {@code --out}, {@code --max-p99-ms} (exit code 1 when exceeded, for CI gating), {@code --token} (bearer
+ * token sent on STOMP CONNECT; raise {@code websocket.max-connections-per-user} on the server to match).
+ * Thousands of clients need a matching {@code ulimit -n}.
+ */
+public class WebSocketFanoutLoadTest {
+
+    private final ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private final HttpClient http = HttpClient.newHttpClient();
+
+    private final String baseUrl;
+    private final int clients;
+    private final int reports;
+    private final int spotCount;
+    private final long intervalMs;
+    private final int connectBatch;
+    private final long drainMs;
+    private final Path out;
+    private final double maxP99Ms;
+    private final String token;
+    private final Map<String, Object> parameters;
+
+    // spotId -> report in flight for that spot
+    private final Map<Long, PendingReport> pending = new ConcurrentHashMap<>();
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong unmatched = new AtomicLong();
+    private final LatencyRecorder latency;
+
+    public WebSocketFanoutLoadTest(LoadTestArgs args) {
+        this.baseUrl = args.string("url", "http://localhost:8080");
+        this.clients = args.integer("clients", 1000);
+        this.reports = args.integer("reports", 100);
+        this.spotCount = args.integer("spots", 20);
+        this.intervalMs = args.longValue("interval-ms", 50);
+        this.connectBatch = args.integer("connect-batch", 200);
+        this.drainMs = args.longValue("drain-ms", 3000);
+        this.out = Path.of(args.string("out", "target/loadtest/ws-fanout-report.json"));
+        this.maxP99Ms = args.decimal("max-p99-ms", 0);
+        this.token = args.string("token", "");
+        this.parameters = args.resolved();
+        this.latency = new LatencyRecorder(Math.max(1, clients * reports));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, Object> report = new WebSocketFanoutLoadTest(new LoadTestArgs(args)).run();
+        if (Boolean.FALSE.equals(report.get("passed"))) {
+            System.exit(1);
+        }
+    }
+
+    Map<String, Object> run() throws Exception {
+        List<Long> spotIds = fetchSpotIds();
+        if (spotIds.isEmpty()) {
+            throw new IllegalStateException("No parking spots at " + baseUrl + "/parking-spots; seed some data first");
+        }
+
+        WebSocketStompClient stompClient = new WebSocketStompClient(
+                new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient()))));
+        stompClient.setMessageConverter(new MappingJackson2MessageConverter());
+        stompClient.setInboundMessageSizeLimit(1024 * 1024);
+
+        long connectStart = System.nanoTime();
+        List<StompSession> sessions = connectAll(stompClient);
+        double connectSeconds = (System.nanoTime() - connectStart) / 1e9;
+        System.out.printf("Connected %d/%d sessions in %.2fs%n", sessions.size(), clients, connectSeconds);
+
+        long driveStart = System.nanoTime();
+        int failedReports = 0;
+        for (int i = 0; i < reports; i++) {
+            long spotId = spotIds.get(i % spotIds.size());
+            // Alternate per round so every report is a real state change on the server
+            boolean available = (i / spotIds.size()) % 2 == 0;
+            pending.put(spotId, new PendingReport(System.nanoTime(), available));
+            if (!report(spotId, available)) {
+                failedReports++;
+            }
+            TimeUnit.MILLISECONDS.sleep(intervalMs);
+        }
+        double driveSeconds = (System.nanoTime() - driveStart) / 1e9;
+        TimeUnit.MILLISECONDS.sleep(drainMs);
+
+        sessions.forEach(StompSession::disconnect);
+        stompClient.stop();
+
+        Map<String, Double> percentiles = latency.summaryMillis();
+        long expected = (long) sessions.size() * (reports - failedReports);
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("harness", "websocket-fanout");
+        report.put("timestamp", Instant.now().toString());
+        report.put("parameters", parameters);
+        report.put("sessionsConnected", sessions.size());
+        report.put("connectSeconds", connectSeconds);
+        report.put("reportsSent", reports);
+        report.put("reportsFailed", failedReports);
+        report.put("driveSeconds", driveSeconds);
+        report.put("messagesExpected", expected);
+        report.put("messagesReceived", received.get());
+        report.put("messagesUnmatched", unmatched.get());
+        report.put("deliveryRatio", expected == 0 ? 0.0 : (double) latency.count() / expected);
+        report.put("latencyMillis", percentiles);
+        if (maxP99Ms > 0) {
+            report.put("passed", percentiles.getOrDefault("p99", Double.MAX_VALUE) <= maxP99Ms);
+        }
+
+        Files.createDirectories(out.toAbsolutePath().getParent());
+        mapper.writeValue(out.toFile(), report);
+        System.out.println(mapper.writeValueAsString(report));
+        System.out.println("Report written to " + out.toAbsolutePath());
+        return report;
+    }
+
+    private List<StompSession> connectAll(WebSocketStompClient stompClient) {
+        String wsUrl = baseUrl + "/ws/parking";
+        List<StompSession> sessions = new ArrayList<>(clients);
+        StompHeaders connectHeaders = new StompHeaders();
+        if (!token.isEmpty()) {
+            connectHeaders.add("Authorization", "Bearer " + token);
+        }
+        for (int start = 0; start < clients; start += connectBatch) {
+            List<CompletableFuture<StompSession>> batch = new ArrayList<>();
+            for (int i = start; i < Math.min(clients, start + connectBatch); i++) {
+                batch.add(stompClient.connectAsync(wsUrl, new WebSocketHttpHeaders(), connectHeaders, new SubscribingHandler()));
+            }
+            for (CompletableFuture<StompSession> future : batch) {
+                try {
+                    sessions.add(future.get(30, TimeUnit.SECONDS));
+                } catch (Exception e) {
+                    System.err.println("Connect failed: " + e.getMessage());
+                }
+            }
+        }
+        return sessions;
+    }
+
+    private List<Long> fetchSpotIds() throws Exception {
+        HttpResponse<String> response = http.send(
+                HttpRequest.newBuilder(URI.create(baseUrl + "/parking-spots")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        List<Long> ids = new ArrayList<>();
+        for (JsonNode spot : mapper.readTree(response.body())) {
+            if (ids.size() >= spotCount) {
+                break;
+            }
+            ids.add(spot.get("id").asLong());
+        }
+        return ids;
+    }
+
+    private boolean report(long spotId, boolean available) {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(
+                            URI.create(baseUrl + "/parking-spots/" + spotId + "/report?available=" + available))
+                    .POST(HttpRequest.BodyPublishers.noBody())
+                    .build();
+            return http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+        } catch (Exception e) {
+            System.err.println("Report failed for spot " + spotId + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    private record PendingReport(long sentNanos, boolean available) {
+    }
+
+    private class SubscribingHandler extends StompSessionHandlerAdapter {
+
+        @Override
+        public void afterConnected(StompSession session, StompHeaders connectedHeaders) {
+            session.subscribe("/topic/parking-updates", this);
+        }
+
+        @Override
+        public Type getPayloadType(StompHeaders headers) {
+            return ParkingSpotUpdateMessage.class;
+        }
+
+        @Override
+        public void handleFrame(StompHeaders headers, Object payload) {
+            long now = System.nanoTime();
+            received.incrementAndGet();
+            ParkingSpotUpdateMessage message = (ParkingSpotUpdateMessage) payload;
+            if (message.getParkingSpot() == null) {
+                unmatched.incrementAndGet();
+                return;
+            }
+            PendingReport report = pending.get(message.getParkingSpot().getId());
+            if (report == null || report.available() != message.getParkingSpot().isAvailable()) {
+                unmatched.incrementAndGet();
+                return;
+            }
+            latency.record(now - report.sentNanos());
+        }
+    }
+}
@@ -8,10 +8,12 @@ import org.springframework.boot.context.event.ApplicationEnvironmentPreparedEven
 import org.springframework.context.ApplicationListener;
 import org.springframework.core.env.ConfigurableEnvironment;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EntityScan(basePackages = "com.smart.parking.backend.model")
 @EnableJpaRepositories(basePackages = "com.smart.parking.backend.repository")
+@EnableScheduling
 public class SmartParkingApplication {
 
     public static void main(String[] args) {
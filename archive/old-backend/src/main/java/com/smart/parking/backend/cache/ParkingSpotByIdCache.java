@@ -0,0 +1,104 @@
+package com.smart.parking.backend.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.smart.parking.backend.dto.ParkingSpotDTO;
+import com.smart.parking.backend.event.ParkingSpotUpdateEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of single spots for {@code ParkingSpotService.getParkingSpotById}, which serves the detail
+ * endpoint and the re-read {@code ParkingSpotEventListener} does after every write.
+ * <p>
+ * The service writes through on create, update and availability changes and evicts on delete, so the
+ * listener's re-read is a hit. Update events adjust entries in place as well; writes made by other
+ * instances are only picked up when the entry expires ({@code cache.parking-spot.ttl-seconds}). Only spots
+ * of regions this node owns are cached, since no other region's updates arrive here.
+ * Entries are copied on the way in and out because the DTO is mutable. Hit ratio and evictions are
+ * published as {@code cache.*} meters tagged {@code cache=parkingSpotsById}.
+ */
+@Component
+public class ParkingSpotByIdCache {
+
+    static final String CACHE_NAME = "parkingSpotsById";
+
+    private final Cache<Long, ParkingSpotDTO> cache;
+
+    public ParkingSpotByIdCache(MeterRegistry meterRegistry,
+                                @Value("${cache.parking-spot.max-size:10000}") long maxSize,
+                                @Value("${cache.parking-spot.ttl-seconds:60}") long ttlSeconds) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Returns the cached spot or loads it; exceptions thrown by the loader propagate and nothing is cached.
+     */
+    public ParkingSpotDTO get(Long id, Function<Long, ParkingSpotDTO> loader) {
+        return copy(cache.get(id, loader));
+    }
+
+    /**
+     * Cached spot, or null; never loads.
+     */
+    public ParkingSpotDTO getIfPresent(Long id) {
+        ParkingSpotDTO cached = cache.getIfPresent(id);
+        return cached == null ? null : copy(cached);
+    }
+
+    public void put(ParkingSpotDTO spot) {
+        cache.put(spot.getId(), copy(spot));
+    }
+
+    public void evict(Long id) {
+        cache.invalidate(id);
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onParkingSpotUpdate(ParkingSpotUpdateEvent event) {
+        switch (event.getUpdateType()) {
+            case "DELETE" -> cache.invalidate(event.getSpotId());
+            case "AVAILABILITY_UPDATE" -> cache.asMap().computeIfPresent(event.getSpotId(), (id, cached) -> {
+                ParkingSpotDTO updated = copy(cached);
+                updated.setAvailable(event.isAvailable());
+                return updated;
+            });
+            // CREATE and UPDATE are published after the service has written the new state through
+            default -> {
+            }
+        }
+    }
+
+    private static ParkingSpotDTO copy(ParkingSpotDTO source) {
+        ParkingSpotDTO copy = new ParkingSpotDTO();
+        copy.setId(source.getId());
+        copy.setRegion(source.getRegion());
+        copy.setLatitude(source.getLatitude());
+        copy.setLongitude(source.getLongitude());
+        copy.setAddress(source.getAddress());
+        copy.setAvailable(source.isAvailable());
+        copy.setPrice(source.getPrice());
+        copy.setRestrictions(source.getRestrictions());
+        copy.setHeldUntil(source.getHeldUntil());
+        copy.setEffectivePrice(source.getEffectivePrice());
+        return copy;
+    }
+}
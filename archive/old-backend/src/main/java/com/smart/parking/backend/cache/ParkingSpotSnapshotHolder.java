@@ -0,0 +1,182 @@
+package com.smart.parking.backend.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smart.parking.backend.dto.ParkingSpotDTO;
+import com.smart.parking.backend.service.ParkingSpotService;
+import com.smart.parking.backend.util.ContentCodings;
+import com.smart.parking.backend.util.ContentCodings.Coding;
+import com.smart.parking.backend.util.WireFormats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+/**
+ * Keeps each region's spot list pre-serialized so {@code GET /parking-spots} and {@code /app/spots} do not
+ * read the whole region and re-encode it for every request.
+ * <p>
+ * A snapshot is tagged with its region's {@link SpotDataVersion} and rebuilt lazily by the next reader once
+ * an update has moved that version on; updates elsewhere leave it alone. Concurrent readers of a stale
+ * snapshot share one rebuild (single flight): the first one takes the region's lock and rebuilds, the others
+ * wait and reuse its result.
+ * <p>
+ * Compressed bodies (gzip, and brotli where available) are produced once per snapshot and encoding, on
+ * first request, so matching {@code Accept-Encoding} requests are served from stored bytes. With
+ * {@code spot-snapshot.precompressed=false} only identity bodies are served and compression is left to
+ * the server.
+ */
+@Component
+@Slf4j
+public class ParkingSpotSnapshotHolder {
+
+    private static final String REBUILD_TIMER = "parking.snapshot.rebuild";
+
+    private final ParkingSpotService parkingSpotService;
+    private final WireFormats wireFormats;
+    private final SpotDataVersion dataVersion;
+    private final Timer loadTimer;
+    private final Timer serializeTimer;
+    private final Map<Coding, Timer> compressTimers = new EnumMap<>(Coding.class);
+    private final BiFunction<byte[], Coding, byte[]> compressor;
+    private final boolean precompressed;
+
+    private final Map<String, Slot> slots = new ConcurrentHashMap<>();
+
+    public ParkingSpotSnapshotHolder(ParkingSpotService parkingSpotService, WireFormats wireFormats,
+                                     SpotDataVersion dataVersion, MeterRegistry meterRegistry,
+                                     @Value("${spot-snapshot.precompressed:true}") boolean precompressed,
+                                     @Value("${spot-snapshot.gzip-level:6}") int gzipLevel,
+                                     @Value("${spot-snapshot.brotli-quality:5}") int brotliQuality) {
+        this.parkingSpotService = parkingSpotService;
+        this.wireFormats = wireFormats;
+        this.dataVersion = dataVersion;
+        this.loadTimer = Timer.builder(REBUILD_TIMER).tag("phase", "load").register(meterRegistry);
+        this.serializeTimer = Timer.builder(REBUILD_TIMER).tag("phase", "serialize").register(meterRegistry);
+        this.precompressed = precompressed;
+        compressTimers.put(Coding.GZIP, Timer.builder(REBUILD_TIMER).tag("phase", "gzip").register(meterRegistry));
+        compressTimers.put(Coding.BROTLI, Timer.builder(REBUILD_TIMER).tag("phase", "br").register(meterRegistry));
+        this.compressor = (body, coding) -> compressTimers.get(coding).record(() ->
+                ContentCodings.encode(body, coding, gzipLevel, brotliQuality));
+    }
+
+    /**
+     * Encoding to serve for this {@code Accept-Encoding}; identity when pre-compression is off.
+     */
+    public Coding negotiate(String acceptEncoding) {
+        return precompressed ? ContentCodings.negotiate(acceptEncoding) : Coding.IDENTITY;
+    }
+
+    /**
+     * @param region a region routed to this node
+     */
+    public Snapshot getSnapshot(String region) {
+        Slot slot = slots.computeIfAbsent(region, k -> new Slot());
+        Snapshot snapshot = slot.current;
+        if (snapshot != null && snapshot.version() == dataVersion.current(region)) {
+            return snapshot;
+        }
+        synchronized (slot) {
+            // Re-read the version first: an update after this point must not be hidden by our rebuild
+            long target = dataVersion.current(region);
+            snapshot = slot.current;
+            if (snapshot != null && snapshot.version() == target) {
+                return snapshot;
+            }
+            snapshot = rebuild(region, target);
+            slot.current = snapshot;
+            return snapshot;
+        }
+    }
+
+    private Snapshot rebuild(String region, long target) {
+        long start = System.nanoTime();
+        List<ParkingSpotDTO> spots = loadTimer.record(() -> parkingSpotService.getAllParkingSpots(region));
+        byte[] json = serializeTimer.record(() -> encode(wireFormats.json(), spots));
+        log.debug("Rebuilt {} spot snapshot v{} ({} spots, {} bytes) in {} ms",
+                region, target, spots.size(), json.length, (System.nanoTime() - start) / 1_000_000);
+        return new Snapshot(target, spots, json, wireFormats.cbor(), compressor);
+    }
+
+    // Current snapshot of one region; also its rebuild lock
+    private static final class Slot {
+        private volatile Snapshot current;
+    }
+
+    private static byte[] encode(ObjectMapper mapper, List<ParkingSpotDTO> spots) {
+        try {
+            return mapper.writeValueAsBytes(spots);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize parking spot snapshot", e);
+        }
+    }
+
+    /**
+     * Immutable encoded spot list. The byte arrays are shared between requests and must never be modified.
+     * CBOR is encoded on first use only, since most clients never ask for it.
+     */
+    public static final class Snapshot {
+
+        private final long version;
+        private final List<ParkingSpotDTO> spots;
+        private final byte[] json;
+        private final ObjectMapper cborMapper;
+        private final BiFunction<byte[], Coding, byte[]> compressor;
+        private final Map<String, byte[]> compressed = new ConcurrentHashMap<>();
+        private volatile byte[] cbor;
+
+        Snapshot(long version, List<ParkingSpotDTO> spots, byte[] json, ObjectMapper cborMapper,
+                 BiFunction<byte[], Coding, byte[]> compressor) {
+            this.version = version;
+            this.spots = spots;
+            this.json = json;
+            this.cborMapper = cborMapper;
+            this.compressor = compressor;
+        }
+
+        public long version() {
+            return version;
+        }
+
+        public int size() {
+            return spots.size();
+        }
+
+        public byte[] json() {
+            return json;
+        }
+
+        public byte[] cbor() {
+            byte[] encoded = cbor;
+            if (encoded == null) {
+                synchronized (this) {
+                    encoded = cbor;
+                    if (encoded == null) {
+                        encoded = encode(cborMapper, spots);
+                        cbor = encoded;
+                    }
+                }
+            }
+            return encoded;
+        }
+
+        /**
+         * JSON or CBOR body in the given content coding. Each combination is compressed at most once;
+         * concurrent first requests wait for that single compression.
+         */
+        public byte[] body(boolean cbor, Coding coding) {
+            if (coding == Coding.IDENTITY) {
+                return cbor ? cbor() : json;
+            }
+            return compressed.computeIfAbsent((cbor ? "cbor/" : "json/") + coding.token(),
+                    key -> compressor.apply(cbor ? cbor() : json, coding));
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.smart.parking.backend.cache;
+
+import com.smart.parking.backend.event.ParkingSpotUpdateEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version of each region's spot data and the version at which each spot last changed, both moved on by
+ * every {@link ParkingSpotUpdateEvent}. Backs the list snapshots and the ETags of the spot endpoints, so a
+ * conditional GET can be answered without reading the data. An update only changes its own region's
+ * version: other regions keep their snapshots and tags.
+ * <p>
+ * ETags start with a random per-process epoch: tags issued before a restart or by another instance never
+ * match, they only cost one full response. Like the snapshot, only writes made through this instance are
+ * seen.
+ */
+@Component
+public class SpotDataVersion {
+
+    private final String epoch = Long.toString(new SecureRandom().nextLong() >>> 1, 36);
+    // Source of all version numbers, so a region's version never repeats a value it had before
+    private final AtomicLong version = new AtomicLong();
+    private final Map<String, AtomicLong> regionVersions = new ConcurrentHashMap<>();
+    private final Map<Long, Long> spotVersions = new ConcurrentHashMap<>();
+
+    /**
+     * Runs before the snapshot is read and before the broadcasting listeners, so a client that re-fetches
+     * after an update notification never gets a tag for the previous state.
+     */
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onParkingSpotUpdate(ParkingSpotUpdateEvent event) {
+        long next = version.incrementAndGet();
+        regionVersions.computeIfAbsent(event.getRegion(), k -> new AtomicLong()).accumulateAndGet(next, Math::max);
+        if (event.getSpotId() != null) {
+            spotVersions.put(event.getSpotId(), next);
+        }
+    }
+
+    /**
+     * Moves a region and some of its spots on without an update event, for changes derived from the data
+     * such as new occupancy prices.
+     */
+    public void bump(String region, Collection<Long> spotIds) {
+        long next = version.incrementAndGet();
+        regionVersions.computeIfAbsent(region, k -> new AtomicLong()).accumulateAndGet(next, Math::max);
+        for (Long spotId : spotIds) {
+            spotVersions.put(spotId, next);
+        }
+    }
+
+    /**
+     * Version of a region's data; 0 for regions untouched since startup.
+     */
+    public long current(String region) {
+        AtomicLong regionVersion = regionVersions.get(region);
+        return regionVersion == null ? 0 : regionVersion.get();
+    }
+
+    /**
+     * ETag (strong form) for a list representation at a region {@code version}; {@code variant} tells
+     * encodings apart.
+     */
+    public String listETag(long version, String variant) {
+        return "\"" + epoch + "-" + version + variant + "\"";
+    }
+
+    /**
+     * ETag (strong form) for one spot: changes only when that spot does (spots untouched since startup are at 0).
+     */
+    public String spotETag(Long id, String variant) {
+        return "\"" + epoch + "-s" + id + "-" + spotVersions.getOrDefault(id, 0L) + variant + "\"";
+    }
+}
@@ -0,0 +1,89 @@
+package com.smart.parking.backend.config;
+
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optional controller that resizes the Hikari pool within
+ * [{@code datasource.adaptive-pool.min-size}, {@code datasource.adaptive-pool.max-size}] from the acquire
+ * latency observed by {@link PoolMetricsTrackerFactory}. It grows by one connection per interval while the
+ * average acquire time exceeds {@code grow-above-ms} (or acquires time out) and shrinks by one while the
+ * slowest acquire stays under {@code shrink-below-ms} with idle connections and nobody waiting. One step
+ * per interval keeps it from oscillating; the upper bound protects the database's connection limit.
+ * <p>
+ * Enabled with {@code datasource.adaptive-pool.enabled}, checked at runtime rather than as a bean condition so
+ * the switch still works in AOT-processed builds, where conditions are fixed at build time.
+ */
+@Component
+@Slf4j
+public class AdaptivePoolSizer {
+
+    private final boolean enabled;
+    private final HikariDataSource dataSource;
+    private final int minSize;
+    private final int maxSize;
+    private final long growAboveNanos;
+    private final long shrinkBelowNanos;
+
+    public AdaptivePoolSizer(DataSource dataSource,
+                             @Value("${datasource.adaptive-pool.enabled:false}") boolean enabled,
+                             @Value("${datasource.adaptive-pool.min-size:5}") int minSize,
+                             @Value("${datasource.adaptive-pool.max-size:15}") int maxSize,
+                             @Value("${datasource.adaptive-pool.grow-above-ms:50}") long growAboveMs,
+                             @Value("${datasource.adaptive-pool.shrink-below-ms:5}") long shrinkBelowMs) throws SQLException {
+        if (minSize < 1 || maxSize < minSize) {
+            throw new IllegalStateException("datasource.adaptive-pool bounds must satisfy 1 <= min-size <= max-size");
+        }
+        this.enabled = enabled;
+        this.dataSource = dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.growAboveNanos = TimeUnit.MILLISECONDS.toNanos(growAboveMs);
+        this.shrinkBelowNanos = TimeUnit.MILLISECONDS.toNanos(shrinkBelowMs);
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.adaptive-pool.interval-ms:10000}")
+    public void adjust() {
+        if (!enabled || dataSource == null) {
+            return;
+        }
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        if (pool == null || !(dataSource.getMetricsTrackerFactory() instanceof PoolMetricsTrackerFactory tracker)) {
+            return;
+        }
+        PoolMetricsTrackerFactory.AcquireWindow window = tracker.drainWindow();
+        HikariConfigMXBean config = dataSource.getHikariConfigMXBean();
+        int size = config.getMaximumPoolSize();
+
+        int target = size;
+        if ((window.timeouts() > 0 || window.avgNanos() > growAboveNanos) && size < maxSize) {
+            target = size + 1;
+        } else if (window.count() > 0 && window.maxNanos() < shrinkBelowNanos
+                && pool.getThreadsAwaitingConnection() == 0 && pool.getIdleConnections() > 0 && size > minSize) {
+            target = size - 1;
+        } else if (size < minSize || size > maxSize) {
+            target = Math.max(minSize, Math.min(maxSize, size));
+        }
+        if (target == size) {
+            return;
+        }
+
+        // Lower minimum-idle first when shrinking so the housekeeper can retire the surplus connection
+        if (config.getMinimumIdle() > target) {
+            config.setMinimumIdle(target);
+        }
+        config.setMaximumPoolSize(target);
+        log.info("Resized connection pool {} -> {} (acquires={}, avg={} ms, max={} ms, timeouts={})",
+                size, target, window.count(), TimeUnit.NANOSECONDS.toMillis(window.avgNanos()),
+                TimeUnit.NANOSECONDS.toMillis(window.maxNanos()), window.timeouts());
+    }
+}
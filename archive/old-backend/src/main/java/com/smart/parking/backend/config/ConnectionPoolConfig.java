@@ -0,0 +1,36 @@
+package com.smart.parking.backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Attaches {@link PoolMetricsTrackerFactory} to every Hikari pool (the production {@code DataSourceConfig}
+ * pool and the auto-configured one alike) before it starts. Spring Boot only installs its own Micrometer
+ * tracker when none is set, so the standard {@code hikaricp.connections.*} meters are still published once.
+ */
+@Configuration
+public class ConnectionPoolConfig {
+
+    @Bean
+    public static BeanPostProcessor hikariMetricsPostProcessor(
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${datasource.pool.starvation-threshold-ms:250}") long starvationThresholdMs) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource hikari && hikari.getMetricsTrackerFactory() == null
+                        && hikari.getMetricRegistry() == null) {
+                    // Registry resolved lazily: the pool only asks for it when it starts
+                    hikari.setMetricsTrackerFactory(
+                            new PoolMetricsTrackerFactory(meterRegistry::getObject, starvationThresholdMs));
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -9,7 +9,6 @@ import org.springframework.context.annotation.Profile;
 import org.springframework.util.StringUtils;
 import lombok.extern.slf4j.Slf4j;
 
-import javax.sql.DataSource;
 import com.zaxxer.hikari.HikariDataSource;
 
 @Configuration
@@ -24,9 +23,11 @@ public class DataSourceConfig {
         return new DataSourceProperties();
     }
 
+    // Binds spring.datasource.hikari.* (pool size, timeouts) onto the pool, as Boot's own Hikari config does
     @Bean
     @Primary
-    public DataSource dataSource(DataSourceProperties properties) {
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties properties) {
         String url = properties.getUrl();
 
         if (!StringUtils.hasText(url)) {
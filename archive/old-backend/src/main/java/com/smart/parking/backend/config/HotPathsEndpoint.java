@@ -0,0 +1,80 @@
+package com.smart.parking.backend.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code GET /actuator/hotpaths}: every {@code parking.*} meter in one response, one entry per tag
+ * combination, with count, mean, max and p50/p95/p99. Timers are reported in milliseconds. Counts and
+ * means cover the whole uptime; max and percentiles cover Micrometer's sliding window (two minutes by
+ * default), so they reflect current load.
+ */
+@Component
+@Endpoint(id = "hotpaths")
+public class HotPathsEndpoint {
+
+    private static final String PREFIX = "parking.";
+
+    private final MeterRegistry meterRegistry;
+
+    public HotPathsEndpoint(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @ReadOperation
+    public Map<String, List<Map<String, Object>>> hotPaths() {
+        Map<String, List<Map<String, Object>>> result = new TreeMap<>();
+        for (Meter meter : meterRegistry.getMeters()) {
+            String name = meter.getId().getName();
+            // Percentile gauges repeat what the timer snapshots below already contain
+            if (!name.startsWith(PREFIX) || name.endsWith(".percentile")) {
+                continue;
+            }
+            Map<String, Object> entry = new LinkedHashMap<>();
+            Map<String, String> tags = new TreeMap<>();
+            for (Tag tag : meter.getId().getTags()) {
+                tags.put(tag.getKey(), tag.getValue());
+            }
+            entry.put("tags", tags);
+            if (meter instanceof Timer timer) {
+                describe(entry, timer.takeSnapshot(), true);
+            } else if (meter instanceof DistributionSummary summary) {
+                describe(entry, summary.takeSnapshot(), false);
+            } else if (meter instanceof Gauge gauge) {
+                entry.put("value", gauge.value());
+            } else {
+                continue;
+            }
+            result.computeIfAbsent(name, k -> new ArrayList<>()).add(entry);
+        }
+        result.values().forEach(entries -> entries.sort(Comparator.comparing(e -> e.get("tags").toString())));
+        return result;
+    }
+
+    private static void describe(Map<String, Object> entry, HistogramSnapshot snapshot, boolean time) {
+        entry.put("count", snapshot.count());
+        entry.put(time ? "meanMs" : "mean", time ? snapshot.mean(TimeUnit.MILLISECONDS) : snapshot.mean());
+        entry.put(time ? "maxMs" : "max", time ? snapshot.max(TimeUnit.MILLISECONDS) : snapshot.max());
+        for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+            String key = "p" + Math.round(percentile.percentile() * 100);
+            entry.put(time ? key + "Ms" : key, time ? percentile.value(TimeUnit.MILLISECONDS) : percentile.value());
+        }
+    }
+}
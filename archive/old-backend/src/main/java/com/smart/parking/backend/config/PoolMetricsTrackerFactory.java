@@ -0,0 +1,140 @@
+package com.smart.parking.backend.config;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Publishes the standard {@code hikaricp.connections.*} meters (through Hikari's Micrometer tracker) and
+ * additionally:
+ * <ul>
+ *   <li>logs pool starvation (an acquire slower than {@code datasource.pool.starvation-threshold-ms}, or a
+ *       timeout) together with the application method that asked for the connection, at most once per
+ *       second;</li>
+ *   <li>keeps acquire-time totals for the current window, read by {@link AdaptivePoolSizer}.</li>
+ * </ul>
+ * The caller is found by walking the stack, which only happens on the slow path.
+ */
+@Slf4j
+public class PoolMetricsTrackerFactory implements MetricsTrackerFactory {
+
+    private static final String APP_PACKAGE = "com.smart.parking.backend.";
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+    private static final long LOG_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Supplier<MeterRegistry> meterRegistry;
+    private final long starvationThresholdNanos;
+
+    private final LongAdder acquireCount = new LongAdder();
+    private final LongAdder acquireNanos = new LongAdder();
+    private final LongAccumulator acquireMaxNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder timeouts = new LongAdder();
+    private final AtomicLong lastLoggedAt = new AtomicLong(System.nanoTime() - LOG_INTERVAL_NANOS);
+    private final LongAdder suppressed = new LongAdder();
+
+    public PoolMetricsTrackerFactory(Supplier<MeterRegistry> meterRegistry, long starvationThresholdMs) {
+        this.meterRegistry = meterRegistry;
+        this.starvationThresholdNanos = TimeUnit.MILLISECONDS.toNanos(starvationThresholdMs);
+    }
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        IMetricsTracker delegate = new MicrometerMetricsTrackerFactory(meterRegistry.get()).create(poolName, poolStats);
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+                delegate.recordConnectionCreatedMillis(connectionCreatedMillis);
+            }
+
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                delegate.recordConnectionAcquiredNanos(elapsedAcquiredNanos);
+                acquireCount.increment();
+                acquireNanos.add(elapsedAcquiredNanos);
+                acquireMaxNanos.accumulate(elapsedAcquiredNanos);
+                if (elapsedAcquiredNanos > starvationThresholdNanos && shouldLog()) {
+                    log.warn("Connection pool {} starved: {} waited {} ms (active={}, idle={}, pending={}, suppressed={})",
+                            poolName, callerMethod(), TimeUnit.NANOSECONDS.toMillis(elapsedAcquiredNanos),
+                            poolStats.getActiveConnections(), poolStats.getIdleConnections(),
+                            poolStats.getPendingThreads(), suppressed.sumThenReset());
+                }
+            }
+
+            @Override
+            public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                delegate.recordConnectionUsageMillis(elapsedBorrowedMillis);
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                delegate.recordConnectionTimeout();
+                timeouts.increment();
+                if (shouldLog()) {
+                    log.error("Connection pool {} timed out serving {} (active={}, idle={}, pending={}, suppressed={})",
+                            poolName, callerMethod(), poolStats.getActiveConnections(), poolStats.getIdleConnections(),
+                            poolStats.getPendingThreads(), suppressed.sumThenReset());
+                }
+            }
+
+            @Override
+            public void close() {
+                delegate.close();
+            }
+        };
+    }
+
+    /**
+     * Returns acquire statistics since the previous call and starts a new window.
+     */
+    public AcquireWindow drainWindow() {
+        long count = acquireCount.sumThenReset();
+        long totalNanos = acquireNanos.sumThenReset();
+        long maxNanos = acquireMaxNanos.getThenReset();
+        return new AcquireWindow(count, count == 0 ? 0 : totalNanos / count, maxNanos, timeouts.sumThenReset());
+    }
+
+    private boolean shouldLog() {
+        long now = System.nanoTime();
+        long last = lastLoggedAt.get();
+        if (now - last >= LOG_INTERVAL_NANOS && lastLoggedAt.compareAndSet(last, now)) {
+            return true;
+        }
+        suppressed.increment();
+        return false;
+    }
+
+    /**
+     * Nearest application frame on the acquiring thread. Transactional services acquire the connection in
+     * their proxy, so the proxy frame names the service method; the proxy suffix is stripped.
+     */
+    static String callerMethod() {
+        List<StackWalker.StackFrame> frames = STACK_WALKER.walk(stream -> stream
+                .filter(f -> f.getClassName().startsWith(APP_PACKAGE)
+                        && !f.getClassName().equals(PoolMetricsTrackerFactory.class.getName())
+                        && !f.getClassName().startsWith(PoolMetricsTrackerFactory.class.getName() + "$"))
+                .limit(1)
+                .toList());
+        if (frames.isEmpty()) {
+            return "<unknown>";
+        }
+        String className = frames.get(0).getClassName();
+        int proxySuffix = className.indexOf("$$");
+        if (proxySuffix > 0) {
+            className = className.substring(0, proxySuffix);
+        }
+        return className.substring(className.lastIndexOf('.') + 1) + "." + frames.get(0).getMethodName();
+    }
+
+    public record AcquireWindow(long count, long avgNanos, long maxNanos, long timeouts) {
+    }
+}
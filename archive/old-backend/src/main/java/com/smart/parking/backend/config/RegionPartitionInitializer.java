@@ -0,0 +1,74 @@
+package com.smart.parking.backend.config;
+
+import com.smart.parking.backend.service.RegionRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * On PostgreSQL, gives every configured region its own {@code parking_spots} partition (see the V5 and V7
+ * migrations) once the migrations have run. Only regions without one are passed to the database function,
+ * whose row move locks {@code parking_spots} for a bounded time. Other databases keep a single table with a
+ * region index and are skipped.
+ */
+@Component
+@Slf4j
+public class RegionPartitionInitializer implements ApplicationRunner {
+
+    private static final String PARTITION_PREFIX = "parking_spots_r_";
+    private static final String PARTITIONS = "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid"
+            + " WHERE i.inhparent = 'parking_spots'::regclass";
+
+    private final DataSource dataSource;
+    private final RegionRouter regionRouter;
+
+    public RegionPartitionInitializer(DataSource dataSource, RegionRouter regionRouter) {
+        this.dataSource = dataSource;
+        this.regionRouter = regionRouter;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try (Connection connection = dataSource.getConnection()) {
+            if (!"PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName())) {
+                return;
+            }
+            Set<String> partitions = new HashSet<>();
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(PARTITIONS)) {
+                while (rs.next()) {
+                    partitions.add(rs.getString(1));
+                }
+            }
+            try (PreparedStatement statement = connection.prepareStatement("SELECT ensure_parking_spot_partition(?)")) {
+                for (String region : regionRouter.knownRegions()) {
+                    if (partitions.contains(PARTITION_PREFIX + region)) {
+                        continue;
+                    }
+                    statement.setString(1, region);
+                    try (ResultSet rs = statement.executeQuery()) {
+                        if (rs.next() && rs.getBoolean(1)) {
+                            log.info("Created parking_spots partition for region {}", region);
+                        }
+                    } catch (SQLException e) {
+                        // Typically the lock timeout; retried at the next startup
+                        log.warn("Could not create the parking_spots partition for region {}: {}", region, e.getMessage());
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            // Spots of these regions stay in the shared default partition; queries are still correct
+            log.warn("Could not create region partitions: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.smart.parking.backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code regions.*}: how parking data is split by city/region and which regions this node serves.
+ *
+ * @param defaultRegion region of spots and requests that name none and fall in no {@code bounds}
+ * @param owned         regions served (and held in memory) by this node; {@code *} for all
+ * @param bounds        region name to {@code minLat,minLng,maxLat,maxLng}, used to place requests and new
+ *                      spots by their coordinates
+ * @param ownerUrls     region name to base URL of the node that owns it; requests for those regions are
+ *                      redirected there, other unowned regions are refused with 421
+ */
+@ConfigurationProperties("regions")
+public record RegionProperties(String defaultRegion, List<String> owned, Map<String, String> bounds,
+                               Map<String, String> ownerUrls) {
+
+    public static final String ALL = "*";
+
+    public RegionProperties {
+        defaultRegion = defaultRegion == null ? "default" : defaultRegion;
+        owned = owned == null || owned.isEmpty() ? List.of(ALL) : List.copyOf(owned);
+        // Kept in configuration order: the first matching box wins
+        bounds = bounds == null ? Map.of() : Collections.unmodifiableMap(new LinkedHashMap<>(bounds));
+        ownerUrls = ownerUrls == null ? Map.of() : Map.copyOf(ownerUrls);
+    }
+
+    /**
+     * Single-region setup: everything in {@code default}, all served here.
+     */
+    public static RegionProperties defaults() {
+        return new RegionProperties(null, null, null, null);
+    }
+}
@@ -0,0 +1,96 @@
+package com.smart.parking.backend.config;
+
+import com.smart.parking.backend.service.ParkingSpotService;
+import com.smart.parking.backend.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Times every call to the service interfaces in {@link #TIMED_SERVICES} as
+ * {@code parking.service.duration{service, method, outcome}}. Percentiles and histogram buckets come from
+ * the {@code management.metrics.distribution.*.parking} properties. Timers are resolved once per method,
+ * so a call costs two {@code nanoTime} reads and one histogram update.
+ */
+@Configuration
+public class ServiceMetricsConfig {
+
+    public static final String SERVICE_TIMER = "parking.service.duration";
+
+    private static final List<Class<?>> TIMED_SERVICES = List.of(ParkingSpotService.class, UserService.class);
+
+    @Bean
+    public static BeanPostProcessor serviceTimingPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                Class<?> service = TIMED_SERVICES.stream().filter(type -> type.isInstance(bean)).findFirst().orElse(null);
+                if (service == null) {
+                    return bean;
+                }
+                TimingInterceptor interceptor = new TimingInterceptor(meterRegistry::getObject, service.getSimpleName());
+                // Already proxied (e.g. @Transactional): add to the existing chain instead of proxying twice
+                if (bean instanceof Advised advised && !advised.isFrozen()) {
+                    advised.addAdvice(0, interceptor);
+                    return bean;
+                }
+                ProxyFactory factory = new ProxyFactory(bean);
+                factory.addAdvice(interceptor);
+                return factory.getProxy();
+            }
+        };
+    }
+
+    static final class TimingInterceptor implements MethodInterceptor {
+
+        private final Supplier<MeterRegistry> meterRegistry;
+        private final String service;
+        private final Map<Method, Timer> success = new ConcurrentHashMap<>();
+        private final Map<Method, Timer> error = new ConcurrentHashMap<>();
+
+        TimingInterceptor(Supplier<MeterRegistry> meterRegistry, String service) {
+            this.meterRegistry = meterRegistry;
+            this.service = service;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            long start = System.nanoTime();
+            try {
+                Object result = invocation.proceed();
+                timer(success, invocation.getMethod(), "success").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                return result;
+            } catch (Throwable t) {
+                timer(error, invocation.getMethod(), "error").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                throw t;
+            }
+        }
+
+        private Timer timer(Map<Method, Timer> timers, Method method, String outcome) {
+            Timer timer = timers.get(method);
+            if (timer == null) {
+                timer = timers.computeIfAbsent(method, m -> Timer.builder(SERVICE_TIMER)
+                        .description("Service method latency")
+                        .tag("service", service)
+                        .tag("method", m.getName())
+                        .tag("outcome", outcome)
+                        .register(meterRegistry.get()));
+            }
+            return timer;
+        }
+    }
+}
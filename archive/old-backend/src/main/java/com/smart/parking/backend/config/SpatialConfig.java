@@ -0,0 +1,61 @@
+package com.smart.parking.backend.config;
+
+import com.smart.parking.backend.impl.InMemorySpatialQueryEngine;
+import com.smart.parking.backend.impl.PostgisSpatialQueryEngine;
+import com.smart.parking.backend.repository.ParkingSpotRepository;
+import com.smart.parking.backend.service.RegionRouter;
+import com.smart.parking.backend.service.SpatialQueryEngine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Picks the {@link SpatialQueryEngine}: {@code spatial.engine=postgis} or {@code memory}, or {@code auto}
+ * (default), which uses PostGIS when the database is PostgreSQL with the extension installed and the
+ * in-memory index otherwise (H2, MySQL).
+ */
+@Configuration
+@Slf4j
+public class SpatialConfig {
+
+    @Bean
+    public SpatialQueryEngine spatialQueryEngine(DataSource dataSource,
+                                                 ParkingSpotRepository repository,
+                                                 RegionRouter regionRouter,
+                                                 @Value("${spatial.engine:auto}") String engine,
+                                                 @Value("${spatial.memory.cell-size-meters:250}") double cellSizeMeters) {
+        boolean postgis = switch (engine) {
+            case "postgis" -> true;
+            case "memory" -> false;
+            case "auto" -> hasPostgis(dataSource);
+            default -> throw new IllegalArgumentException("Unknown spatial.engine: " + engine + " (postgis, memory or auto)");
+        };
+        SpatialQueryEngine selected = postgis
+                ? new PostgisSpatialQueryEngine(repository)
+                : new InMemorySpatialQueryEngine(repository, regionRouter, cellSizeMeters);
+        log.info("Using {} spatial query engine (spatial.engine={})", selected.getName(), engine);
+        return selected;
+    }
+
+    private static boolean hasPostgis(DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection()) {
+            if (!"PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName())) {
+                return false;
+            }
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery("SELECT 1 FROM pg_extension WHERE extname = 'postgis'")) {
+                return rs.next();
+            }
+        } catch (SQLException e) {
+            log.warn("Could not detect PostGIS, falling back to the in-memory spatial engine: {}", e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.smart.parking.backend.config;
+
+import com.smart.parking.backend.util.WireFormats;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    private final WireFormats wireFormats;
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // Appended last so JSON keeps winning for "Accept: */*"; CBOR only when explicitly requested
+        converters.add(new MappingJackson2CborHttpMessageConverter(wireFormats.cbor()));
+    }
+}
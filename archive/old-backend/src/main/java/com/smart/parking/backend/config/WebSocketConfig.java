@@ -1,20 +1,45 @@
 package com.smart.parking.backend.config;
 
+import com.smart.parking.backend.listener.CborSubscriptions;
+import com.smart.parking.backend.security.StompAuthChannelInterceptor;
+import com.smart.parking.backend.util.WireFormats;
+import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.web.socket.WebSocketHandler;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+
+import java.util.Map;
 
 @Configuration
 @EnableWebSocketMessageBroker
+@RequiredArgsConstructor
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    // In production, specify exact origins
+    private static final String[] ALLOWED_ORIGINS = {"http://localhost:3000", "https://your-vercel-project-name.vercel.app"};
+
+    private final StompAuthChannelInterceptor stompAuthChannelInterceptor;
+    private final CborSubscriptions cborSubscriptions;
+
+    /**
+     * {@code /ws/parking} with SockJS fallbacks for browsers, and {@code /ws/parking-native} as a plain
+     * WebSocket, the only one that can carry binary frames and therefore the {@code .cbor} topics.
+     */
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         registry.addEndpoint("/ws/parking")
-                .setAllowedOrigins("http://localhost:3000", "https://your-vercel-project-name.vercel.app") // In production, specify exact origins
+                .setAllowedOrigins(ALLOWED_ORIGINS)
                 .withSockJS();
+        registry.addEndpoint("/ws/parking-native")
+                .setAllowedOrigins(ALLOWED_ORIGINS)
+                .addInterceptors(new BinaryFramesInterceptor());
     }
 
     @Override
@@ -22,4 +47,26 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         registry.enableSimpleBroker("/topic");
         registry.setApplicationDestinationPrefixes("/app");
     }
-}
\ No newline at end of file
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        // Authenticates CONNECT once; later frames inherit the session's principal
+        registration.interceptors(stompAuthChannelInterceptor, cborSubscriptions);
+    }
+
+    // Marks sessions of the native endpoint as able to receive binary frames
+    private static final class BinaryFramesInterceptor implements HandshakeInterceptor {
+
+        @Override
+        public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                       WebSocketHandler wsHandler, Map<String, Object> attributes) {
+            attributes.put(WireFormats.BINARY_FRAMES_ATTRIBUTE, Boolean.TRUE);
+            return true;
+        }
+
+        @Override
+        public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Exception exception) {
+        }
+    }
+}
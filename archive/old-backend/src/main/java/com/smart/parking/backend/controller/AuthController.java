@@ -12,6 +12,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import jakarta.validation.Valid;
 
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/api/auth")
 @RequiredArgsConstructor
@@ -22,26 +24,23 @@ public class AuthController {
     private final UserService userService;
 
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest request) {
-        log.info("Login attempt for email: {}", request.getEmail());
+    public CompletableFuture<ResponseEntity<AuthResponse>> login(@Valid @RequestBody LoginRequest request) {
+        log.debug("Login attempt for email: {}", request.getEmail());
 
-        try {
-            AuthResponse response = authService.login(request);
-            log.info("Successful login for email: {}", request.getEmail());
+        // Completes on the password hashing pool; the request thread is released meanwhile
+        return authService.login(request).thenApply(response -> {
+            log.debug("Successful login for email: {}", request.getEmail());
             return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            log.error("Login failed for email: {}", request.getEmail(), e);
-            throw e;
-        }
+        });
     }
 
     @PostMapping("/register")
     public ResponseEntity<AuthResponse> register(@Valid @RequestBody RegisterRequest request) {
-        log.info("Registration attempt for email: {}", request.getEmail());
+        log.debug("Registration attempt for email: {}", request.getEmail());
 
         try {
             AuthResponse response = authService.register(request);
-            log.info("Successful registration for email: {}", request.getEmail());
+            log.debug("Successful registration for email: {}", request.getEmail());
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             log.error("Registration failed for email: {}", request.getEmail(), e);
@@ -49,6 +48,22 @@ public class AuthController {
         }
     }
 
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponse> refresh(@Valid @RequestBody RefreshTokenRequest request) {
+        return ResponseEntity.ok(authService.refresh(request.getRefreshToken()));
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader(value = "Authorization", required = false) String authorization) {
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            log.warn("Logout attempt without bearer token");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        authService.logout(authorization.substring(7));
+        return ResponseEntity.noContent().build();
+    }
+
     @GetMapping("/me")
     public ResponseEntity<UserProfileResponse> getCurrentUser(Authentication authentication) {
         // Handle case where authentication is null or invalid
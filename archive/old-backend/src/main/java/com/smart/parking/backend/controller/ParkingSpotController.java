@@ -2,58 +2,174 @@ package com.smart.parking.backend.controller;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import com.smart.parking.backend.cache.ParkingSpotSnapshotHolder;
+import com.smart.parking.backend.cache.SpotDataVersion;
 import com.smart.parking.backend.dto.ParkingSpotDTO;
+import com.smart.parking.backend.dto.SpotAreaFilter;
+import com.smart.parking.backend.exception.BadRequestException;
+import com.smart.parking.backend.exception.UnauthorizedException;
+import com.smart.parking.backend.model.User;
+import com.smart.parking.backend.security.JwtPrincipal;
+import com.smart.parking.backend.service.AvailabilityStreamService;
 import com.smart.parking.backend.service.ParkingSpotService;
+import com.smart.parking.backend.service.RegionRouter;
+import com.smart.parking.backend.util.ContentCodings.Coding;
+import com.smart.parking.backend.util.WireFormats;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 
+/**
+ * Every list, search and stream covers one region: {@code region=} if given, else the region containing the
+ * request's coordinates, else the default region. Requests by spot id belong to the spot's region.
+ * Requests for a region another node owns are redirected there (or refused with 421).
+ */
 @RestController
 @RequestMapping("/parking-spots")
 @RequiredArgsConstructor
 @Slf4j
 public class ParkingSpotController {
 
+    // List endpoints negotiate JSON (default) or CBOR via the Accept header
+    private static final String JSON = MediaType.APPLICATION_JSON_VALUE;
+    private static final String CBOR = WireFormats.APPLICATION_CBOR_VALUE;
+    private static final byte[] EMPTY_JSON_LIST = "[]".getBytes(StandardCharsets.UTF_8);
+    private static final String SORT_DISTANCE = "distance";
+
     private final ParkingSpotService parkingSpotService;
+    private final AvailabilityStreamService availabilityStreamService;
+    private final ParkingSpotSnapshotHolder snapshotHolder;
+    private final SpotDataVersion dataVersion;
+    private final RegionRouter regionRouter;
 
-    @GetMapping
-    public ResponseEntity<List<ParkingSpotDTO>> getAllParkingSpots() {
+    /**
+     * Served from the shared pre-serialized, pre-compressed snapshot; no per-request query, serialization
+     * or compression. Like every read below, answers {@code If-None-Match} with 304 before loading anything.
+     */
+    @GetMapping(produces = {JSON, CBOR})
+    public ResponseEntity<byte[]> getAllParkingSpots(
+            @RequestParam(required = false) String region,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String routed = regionRouter.route(region, null, null);
+        boolean cbor = WireFormats.prefersCbor(accept);
+        Coding coding = snapshotHolder.negotiate(acceptEncoding);
+        // Stored compressed bodies are exact bytes, each with its own strong tag; identity bodies may still be
+        // compressed by the server and so get a weak one
+        String variant = variant(cbor) + (coding == Coding.IDENTITY ? "" : "-" + coding.token());
+        UnaryOperator<String> tag = coding == Coding.IDENTITY ? ParkingSpotController::weak : UnaryOperator.identity();
+        String etag = tag.apply(dataVersion.listETag(dataVersion.current(routed), variant));
+        if (matches(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
         try {
-            List<ParkingSpotDTO> spots = parkingSpotService.getAllParkingSpots();
-            return ResponseEntity.ok(spots != null ? spots : List.of());
+            ParkingSpotSnapshotHolder.Snapshot snapshot = snapshotHolder.getSnapshot(routed);
+            ResponseEntity.BodyBuilder response = revalidated(tag.apply(dataVersion.listETag(snapshot.version(), variant)))
+                    .contentType(cbor ? WireFormats.APPLICATION_CBOR : MediaType.APPLICATION_JSON);
+            if (coding != Coding.IDENTITY) {
+                response.header(HttpHeaders.CONTENT_ENCODING, coding.token());
+            }
+            return response.body(snapshot.body(cbor, coding));
         } catch (Exception e) {
             log.error("Error fetching all parking spots", e);
-            return ResponseEntity.ok(List.of()); // Return empty list instead of error
+            // Return empty list instead of error (untagged, so it is not revalidated as current)
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(EMPTY_JSON_LIST);
         }
     }
 
-    @GetMapping("/available")
-    public ResponseEntity<List<ParkingSpotDTO>> getAvailableParkingSpots() {
-        return ResponseEntity.ok(parkingSpotService.getAvailableParkingSpots());
+    @GetMapping(value = "/available", produces = {JSON, CBOR})
+    public ResponseEntity<List<ParkingSpotDTO>> getAvailableParkingSpots(
+            @RequestParam(required = false) String region,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String routed = regionRouter.route(region, null, null);
+        return versioned(routed, accept, ifNoneMatch, () -> parkingSpotService.getAvailableParkingSpots(routed));
     }
 
-    @GetMapping("/nearby")
+    /**
+     * {@code sort=distance} returns the closest spots first; unsorted otherwise.
+     */
+    @GetMapping(value = "/nearby", produces = {JSON, CBOR})
     public ResponseEntity<List<ParkingSpotDTO>> getNearbyParkingSpots(
             @RequestParam double latitude,
             @RequestParam double longitude,
-            @RequestParam(defaultValue = "1000") double radius) {
-        return ResponseEntity.ok(parkingSpotService.getNearbyParkingSpots(latitude, longitude, radius));
+            @RequestParam(defaultValue = "1000") double radius,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String region,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        boolean orderByDistance = orderByDistance(sort);
+        String routed = regionRouter.route(region, latitude, longitude);
+        return versioned(routed, accept, ifNoneMatch, () ->
+                parkingSpotService.getNearbyParkingSpots(routed, latitude, longitude, radius, orderByDistance));
     }
 
-    @GetMapping("/available/nearby")
+    @GetMapping(value = "/available/nearby", produces = {JSON, CBOR})
     public ResponseEntity<List<ParkingSpotDTO>> getAvailableNearbyParkingSpots(
             @RequestParam double latitude,
             @RequestParam double longitude,
-            @RequestParam(defaultValue = "1000") double radius) {
-        return ResponseEntity.ok(parkingSpotService.getAvailableNearbyParkingSpots(latitude, longitude, radius));
+            @RequestParam(defaultValue = "1000") double radius,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String region,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        boolean orderByDistance = orderByDistance(sort);
+        String routed = regionRouter.route(region, latitude, longitude);
+        return versioned(routed, accept, ifNoneMatch, () ->
+                parkingSpotService.getAvailableNearbyParkingSpots(routed, latitude, longitude, radius, orderByDistance));
+    }
+
+    /**
+     * Server-Sent Events stream of spot updates, replacing polling of {@code /available}.
+     * Optionally restricted to a bounding box or to a radius (meters) around a point; the region is the
+     * one containing its center unless {@code region} is given.
+     * Reconnecting clients send {@code Last-Event-ID} to receive missed updates.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAvailability(
+            @RequestParam(required = false) Double minLat,
+            @RequestParam(required = false) Double minLng,
+            @RequestParam(required = false) Double maxLat,
+            @RequestParam(required = false) Double maxLng,
+            @RequestParam(required = false) Double latitude,
+            @RequestParam(required = false) Double longitude,
+            @RequestParam(required = false) Double radius,
+            @RequestParam(required = false) String region,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        SpotAreaFilter filter = SpotAreaFilter.of(minLat, minLng, maxLat, maxLng, latitude, longitude, radius);
+        Double centerLat = latitude != null ? latitude : minLat == null ? null : (minLat + maxLat) / 2;
+        Double centerLng = longitude != null ? longitude : minLng == null ? null : (minLng + maxLng) / 2;
+        String routed = regionRouter.route(region, centerLat, centerLng);
+        return availabilityStreamService.subscribe(routed, filter, lastEventId);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ParkingSpotDTO> getParkingSpotById(@PathVariable Long id) {
-        return ResponseEntity.ok(parkingSpotService.getParkingSpotById(id));
+    public ResponseEntity<ParkingSpotDTO> getParkingSpotById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (!regionRouter.ownsAll()) {
+            // Only the owner sees the spot's updates, so only its tag, holds and prices are current
+            regionRouter.requireOwned(parkingSpotService.getParkingSpotRegion(id));
+        }
+        String etag = weak(dataVersion.spotETag(id, variant(WireFormats.prefersCbor(accept))));
+        if (matches(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+        return revalidated(etag).body(parkingSpotService.getParkingSpotById(id));
     }
 
     @PostMapping
@@ -89,9 +205,109 @@ public class ParkingSpotController {
             @PathVariable Long id,
             @RequestParam boolean available) {
 
-        log.info("Received report for parking spot {} as {}", id, available ? "available" : "unavailable");
-
         ParkingSpotDTO updatedSpot = parkingSpotService.updateSpotAvailability(id, available);
         return ResponseEntity.ok(updatedSpot);
     }
-}
\ No newline at end of file
+
+    /**
+     * Holds an available spot for the caller for {@code minutes}. Concurrent claims on one spot are decided
+     * in memory: one caller gets the spot, the others get 409 straight away.
+     *
+     * @return the spot, not available and with {@code heldUntil} set
+     */
+    @PostMapping("/{id}/hold")
+    public ResponseEntity<ParkingSpotDTO> holdParkingSpot(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "${holds.default-minutes:10}") int minutes,
+            Authentication authentication) {
+        return ResponseEntity.ok(parkingSpotService.holdParkingSpot(id, userId(authentication), minutes));
+    }
+
+    @DeleteMapping("/{id}/hold")
+    public ResponseEntity<Void> releaseParkingSpotHold(@PathVariable Long id, Authentication authentication) {
+        parkingSpotService.releaseParkingSpotHold(id, userId(authentication));
+        return ResponseEntity.noContent().build();
+    }
+
+    private static Long userId(Authentication authentication) {
+        Object principal = authentication == null ? null : authentication.getPrincipal();
+        if (principal instanceof JwtPrincipal jwtPrincipal) {
+            return jwtPrincipal.userId();
+        }
+        if (principal instanceof User user) {
+            return user.getId();
+        }
+        throw new UnauthorizedException("Authentication required");
+    }
+
+    /**
+     * Tags the result with the data version read before loading it. A write that lands in between makes
+     * the tag older than the body, which only costs the client one extra full response.
+     */
+    private <T> ResponseEntity<T> versioned(String region, String accept, String ifNoneMatch, Supplier<T> loader) {
+        String etag = weak(dataVersion.listETag(dataVersion.current(region), variant(WireFormats.prefersCbor(accept))));
+        if (matches(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+        return revalidated(etag).body(loader.get());
+    }
+
+    private static ResponseEntity.BodyBuilder revalidated(String etag) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(etag)
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+    }
+
+    private static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .cacheControl(CacheControl.noCache())
+                .eTag(etag)
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+                .build();
+    }
+
+    /**
+     * {@code If-None-Match} check against a list of tags; weak comparison, as specified for GET. {@code *} is
+     * not honored since answering it for a single spot would need the lookup we are trying to skip.
+     */
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        String opaque = opaque(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            if (opaque(candidate.trim()).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String opaque(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    /**
+     * Tomcat does not compress responses carrying a strong tag (the tag would then cover two different byte
+     * sequences), so bodies left to on-the-fly compression are tagged weakly.
+     */
+    private static String weak(String etag) {
+        return "W/" + etag;
+    }
+
+    // JSON and CBOR are different representations, so they need different strong tags
+    private static String variant(boolean cbor) {
+        return cbor ? "-cbor" : "";
+    }
+
+    private static boolean orderByDistance(String sort) {
+        if (sort == null) {
+            return false;
+        }
+        if (!SORT_DISTANCE.equals(sort)) {
+            throw new BadRequestException("Unsupported sort: " + sort + " (supported: " + SORT_DISTANCE + ")");
+        }
+        return true;
+    }
+}
@@ -1,25 +1,67 @@
 package com.smart.parking.backend.controller;
 
+import com.smart.parking.backend.cache.ParkingSpotSnapshotHolder;
 import lombok.RequiredArgsConstructor;
 import com.smart.parking.backend.dto.ParkingSpotDTO;
 import com.smart.parking.backend.dto.ParkingSpotUpdateMessage;
 import com.smart.parking.backend.service.ParkingSpotService;
+import com.smart.parking.backend.service.RegionRouter;
+import com.smart.parking.backend.util.WireFormats;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.SendTo;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.stereotype.Controller;
-
-import java.util.List;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
 
 @Controller
 @RequiredArgsConstructor
 public class WebSocketParkingController {
 
+    private static final String SPOTS_TOPIC = "/topic/parking-spots";
+
     private final ParkingSpotService parkingSpotService;
+    private final ParkingSpotSnapshotHolder snapshotHolder;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final RegionRouter regionRouter;
 
+    /**
+     * Publishes the default region's shared pre-serialized snapshot (same bytes as {@code GET /parking-spots}).
+     */
     @MessageMapping("/spots")
-    @SendTo("/topic/parking-spots")
-    public List<ParkingSpotDTO> sendParkingSpots() {
-        return parkingSpotService.getAllParkingSpots();
+    public void sendParkingSpots() {
+        sendParkingSpots(regionRouter.defaultRegion());
+    }
+
+    /**
+     * Same snapshot as {@code /app/spots}, encoded as CBOR on {@code /topic/parking-spots.cbor}.
+     */
+    @MessageMapping("/spots" + WireFormats.CBOR_TOPIC_SUFFIX)
+    public void sendParkingSpotsCbor() {
+        sendParkingSpotsCbor(regionRouter.defaultRegion());
+    }
+
+    /**
+     * A region's snapshot on {@code /topic/parking-spots.<region>}.
+     */
+    @MessageMapping("/spots/{region}")
+    public void sendParkingSpots(@DestinationVariable String region) {
+        String routed = regionRouter.route(region, null, null);
+        sendEncoded(regionRouter.topic(SPOTS_TOPIC, routed), snapshotHolder.getSnapshot(routed).json(),
+                MimeTypeUtils.APPLICATION_JSON);
+    }
+
+    /**
+     * A region's snapshot as CBOR on {@code /topic/parking-spots.<region>.cbor}, sent as binary frames
+     * (see {@link WireFormats#stompHeaders}).
+     */
+    @MessageMapping("/spots" + WireFormats.CBOR_TOPIC_SUFFIX + "/{region}")
+    public void sendParkingSpotsCbor(@DestinationVariable String region) {
+        String routed = regionRouter.route(region, null, null);
+        sendEncoded(regionRouter.topic(SPOTS_TOPIC, routed) + WireFormats.CBOR_TOPIC_SUFFIX,
+                snapshotHolder.getSnapshot(routed).cbor(), WireFormats.APPLICATION_CBOR_MIME);
     }
 
     @MessageMapping("/update")
@@ -28,4 +70,9 @@ public class WebSocketParkingController {
         ParkingSpotDTO updatedSpot = parkingSpotService.updateParkingSpot(spotDTO.getId(), spotDTO);
         return new ParkingSpotUpdateMessage("UPDATE", updatedSpot);
     }
-}
\ No newline at end of file
+
+    // Bypasses the message converters: the payload is already encoded
+    private void sendEncoded(String destination, byte[] payload, MimeType contentType) {
+        messagingTemplate.send(destination, MessageBuilder.createMessage(payload, WireFormats.stompHeaders(contentType)));
+    }
+}
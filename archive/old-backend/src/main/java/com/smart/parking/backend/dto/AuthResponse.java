@@ -9,6 +9,10 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 public class AuthResponse {
     private String token;
+    // Single use: exchange at POST /api/auth/refresh for a new token pair
+    private String refreshToken;
+    // Access token lifetime in seconds
+    private Long expiresIn;
     private String email;
     private String fullName;
 }
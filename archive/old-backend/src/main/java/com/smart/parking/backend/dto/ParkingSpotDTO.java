@@ -5,11 +5,16 @@ import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import lombok.Data;
 
+import java.time.Instant;
+
 @Data
 public class ParkingSpotDTO {
 
     private Long id;
 
+    // Optional on create (placed by coordinates otherwise); ignored on update
+    private String region;
+
     @NotNull(message = "Latitude is required")
     private Double latitude;
 
@@ -25,4 +30,10 @@ public class ParkingSpotDTO {
     private Double price;
 
     private String restrictions;
+
+    // Set while a driver holds the spot, which is then reported as not available; ignored on create and update
+    private Instant heldUntil;
+
+    // price times the occupancy multiplier of the spot's area (OccupancyPricingEngine); ignored on create and update
+    private Double effectivePrice;
 }
\ No newline at end of file
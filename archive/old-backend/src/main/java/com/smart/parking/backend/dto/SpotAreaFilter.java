@@ -0,0 +1,47 @@
+package com.smart.parking.backend.dto;
+
+import com.smart.parking.backend.exception.BadRequestException;
+import com.smart.parking.backend.util.GeometryUtil;
+
+/**
+ * Optional area restriction for streamed updates: either a bounding box or a center + radius.
+ * {@link #ALL} matches every spot.
+ */
+public record SpotAreaFilter(Double minLat, Double minLng, Double maxLat, Double maxLng,
+                             Double latitude, Double longitude, Double radius) {
+
+    public static final SpotAreaFilter ALL = new SpotAreaFilter(null, null, null, null, null, null, null);
+
+    public static SpotAreaFilter of(Double minLat, Double minLng, Double maxLat, Double maxLng,
+                                    Double latitude, Double longitude, Double radius) {
+        boolean anyBox = minLat != null || minLng != null || maxLat != null || maxLng != null;
+        boolean anyRadius = latitude != null || longitude != null || radius != null;
+        if (anyBox && anyRadius) {
+            throw new BadRequestException("Use either a bounding box or a radius filter, not both");
+        }
+        if (anyBox && (minLat == null || minLng == null || maxLat == null || maxLng == null)) {
+            throw new BadRequestException("Bounding box requires minLat, minLng, maxLat and maxLng");
+        }
+        if (anyRadius && (latitude == null || longitude == null || radius == null)) {
+            throw new BadRequestException("Radius filter requires latitude, longitude and radius");
+        }
+        if (!anyBox && !anyRadius) {
+            return ALL;
+        }
+        return new SpotAreaFilter(minLat, minLng, maxLat, maxLng, latitude, longitude, radius);
+    }
+
+    public boolean matches(ParkingSpotDTO spot) {
+        if (spot == null || spot.getLatitude() == null || spot.getLongitude() == null) {
+            return this == ALL;
+        }
+        if (minLat != null) {
+            return spot.getLatitude() >= minLat && spot.getLatitude() <= maxLat
+                    && spot.getLongitude() >= minLng && spot.getLongitude() <= maxLng;
+        }
+        if (radius != null) {
+            return GeometryUtil.distanceMeters(latitude, longitude, spot.getLatitude(), spot.getLongitude()) <= radius;
+        }
+        return true;
+    }
+}
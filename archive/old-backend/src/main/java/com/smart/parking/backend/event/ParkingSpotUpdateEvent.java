@@ -1,18 +1,32 @@
 package com.smart.parking.backend.event;
 
+import com.smart.parking.backend.dto.ParkingSpotDTO;
 import lombok.Getter;
 import org.springframework.context.ApplicationEvent;
 
 @Getter
 public class ParkingSpotUpdateEvent extends ApplicationEvent {
     private final Long spotId;
+    private final String region;
+    // For HOLD, HOLD_RELEASE and HOLD_EXPIRED: whether the spot is now free of holds
     private final boolean available;
     private final String updateType;
+    // For DELETE: the spot as it was, since it can no longer be read
+    private final ParkingSpotDTO removedSpot;
+    // Monotonic publish time, for measuring how long listeners wait to see the event
+    private final long publishedNanos = System.nanoTime();
 
-    public ParkingSpotUpdateEvent(Object source, Long spotId, boolean available, String updateType) {
+    public ParkingSpotUpdateEvent(Object source, Long spotId, String region, boolean available, String updateType) {
+        this(source, spotId, region, available, updateType, null);
+    }
+
+    public ParkingSpotUpdateEvent(Object source, Long spotId, String region, boolean available, String updateType,
+                                  ParkingSpotDTO removedSpot) {
         super(source);
         this.spotId = spotId;
+        this.region = region;
         this.available = available;
         this.updateType = updateType;
+        this.removedSpot = removedSpot;
     }
 }
\ No newline at end of file
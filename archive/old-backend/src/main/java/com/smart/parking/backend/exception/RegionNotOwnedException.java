@@ -0,0 +1,19 @@
+package com.smart.parking.backend.exception;
+
+import lombok.Getter;
+
+/**
+ * The request belongs to a region another node serves. Answered with a redirect to {@code ownerUrl} when
+ * one is configured, 421 Misdirected Request otherwise.
+ */
+@Getter
+public class RegionNotOwnedException extends RuntimeException {
+    private final String region;
+    private final String ownerUrl;
+
+    public RegionNotOwnedException(String region, String ownerUrl) {
+        super("Region " + region + " is not served by this node");
+        this.region = region;
+        this.ownerUrl = ownerUrl;
+    }
+}
@@ -0,0 +1,10 @@
+package com.smart.parking.backend.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class UnauthorizedException extends ApiException {
+
+    public UnauthorizedException(String message) {
+        super(HttpStatus.UNAUTHORIZED, message);
+    }
+}
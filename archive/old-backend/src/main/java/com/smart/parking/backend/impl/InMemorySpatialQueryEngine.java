@@ -0,0 +1,229 @@
+package com.smart.parking.backend.impl;
+
+import com.smart.parking.backend.event.ParkingSpotUpdateEvent;
+import com.smart.parking.backend.model.ParkingSpot;
+import com.smart.parking.backend.repository.ParkingSpotRepository;
+import com.smart.parking.backend.service.RegionRouter;
+import com.smart.parking.backend.service.SpatialQueryEngine;
+import com.smart.parking.backend.service.SpotHoldTable;
+import com.smart.parking.backend.util.GeometryUtil;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Nearby search for databases without PostGIS. Spot coordinates and availability are held in a uniform
+ * latitude/longitude grid per region; a query visits the cells of its region overlapping the search
+ * circle's bounding box, keeps the spots within the radius (haversine) and then loads those rows by primary
+ * key. The rows are checked again, so a spot whose update has not reached the index yet is never returned
+ * wrongly.
+ * <p>
+ * Only the regions this node owns are loaded, once at startup, and kept current from
+ * {@link ParkingSpotUpdateEvent}s. Searches across the antimeridian are not supported.
+ */
+@Slf4j
+public class InMemorySpatialQueryEngine implements SpatialQueryEngine {
+
+    // Length of one degree of latitude on the mean-radius sphere used by GeometryUtil
+    private static final double METERS_PER_DEGREE = 111_195.08;
+
+    private final ParkingSpotRepository repository;
+    private final RegionRouter regionRouter;
+    private final double cellDegrees;
+
+    private final Map<String, Grid> grids = new ConcurrentHashMap<>();
+
+    public InMemorySpatialQueryEngine(ParkingSpotRepository repository, RegionRouter regionRouter,
+                                      double cellSizeMeters) {
+        this.repository = repository;
+        this.regionRouter = regionRouter;
+        this.cellDegrees = cellSizeMeters / METERS_PER_DEGREE;
+    }
+
+    @PostConstruct
+    public synchronized void load() {
+        long start = System.nanoTime();
+        grids.clear();
+        List<ParkingSpotRepository.SpotLocation> locations = regionRouter.ownsAll()
+                ? repository.findAllLocations()
+                : repository.findAllLocationsByRegionIn(regionRouter.ownedRegions());
+        for (ParkingSpotRepository.SpotLocation location : locations) {
+            index(location.getId(), location.getRegion(), location.getLatitude(), location.getLongitude(),
+                    location.isAvailable());
+        }
+        log.info("Indexed {} parking spot(s) in {} region(s), {} grid cell(s) in {} ms",
+                size(), grids.size(), grids.values().stream().mapToInt(grid -> grid.cells.size()).sum(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Override
+    public List<ParkingSpot> findNearby(String region, double latitude, double longitude, double radiusInMeters,
+                                        boolean availableOnly, boolean orderByDistance) {
+        Grid grid = grids.get(region);
+        if (grid == null) {
+            return List.of();
+        }
+        List<Candidate> candidates = new ArrayList<>();
+        for (IndexedSpot spot : candidatesAround(grid, latitude, longitude, radiusInMeters)) {
+            if (availableOnly && !spot.available()) {
+                continue;
+            }
+            double distance = GeometryUtil.distanceMeters(latitude, longitude, spot.latitude(), spot.longitude());
+            if (distance <= radiusInMeters) {
+                candidates.add(new Candidate(spot.id(), distance));
+            }
+        }
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+        if (orderByDistance) {
+            candidates.sort(Comparator.comparingDouble(Candidate::distance));
+        }
+
+        Map<Long, ParkingSpot> rows = new HashMap<>();
+        for (ParkingSpot row : repository.findAllById(candidates.stream().map(Candidate::id).toList())) {
+            rows.put(row.getId(), row);
+        }
+        List<ParkingSpot> result = new ArrayList<>(rows.size());
+        for (Candidate candidate : candidates) {
+            ParkingSpot row = rows.get(candidate.id());
+            if (row != null
+                    && (!availableOnly || row.isAvailable())
+                    && GeometryUtil.distanceMeters(latitude, longitude, row.getLatitude(), row.getLongitude()) <= radiusInMeters) {
+                result.add(row);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String getName() {
+        return "memory";
+    }
+
+    public int size() {
+        return grids.values().stream().mapToInt(grid -> grid.spots.size()).sum();
+    }
+
+    @EventListener
+    public void onParkingSpotUpdate(ParkingSpotUpdateEvent event) {
+        Long id = event.getSpotId();
+        String region = event.getRegion();
+        if (!regionRouter.owns(region)) {
+            return;
+        }
+        switch (event.getUpdateType()) {
+            case "DELETE" -> remove(region, id);
+            case "AVAILABILITY_UPDATE" -> setAvailable(region, id, event.isAvailable());
+            // Holds are applied on top of search results by the service; the indexed spot is unchanged
+            case SpotHoldTable.HOLD, SpotHoldTable.HOLD_RELEASE, SpotHoldTable.HOLD_EXPIRED -> {
+            }
+            default -> repository.findById(id).ifPresentOrElse(
+                    spot -> index(spot.getId(), spot.getRegion(), spot.getLatitude(), spot.getLongitude(),
+                            spot.isAvailable()),
+                    () -> remove(region, id));
+        }
+    }
+
+    private Collection<IndexedSpot> candidatesAround(Grid grid, double latitude, double longitude,
+                                                     double radiusInMeters) {
+        double latDelta = radiusInMeters / METERS_PER_DEGREE;
+        double cosLat = Math.cos(Math.toRadians(Math.min(89.9, Math.abs(latitude) + latDelta)));
+        double lngDelta = Math.min(180, latDelta / cosLat);
+        // One extra cell on each side keeps the box conservative near the edges of the circle
+        long minRow = cellIndex(latitude - latDelta) - 1;
+        long maxRow = cellIndex(latitude + latDelta) + 1;
+        long minCol = cellIndex(longitude - lngDelta) - 1;
+        long maxCol = cellIndex(longitude + lngDelta) + 1;
+
+        // Radius larger than the populated area: a plain scan is cheaper than visiting empty cells
+        if ((maxRow - minRow + 1) * (maxCol - minCol + 1) > grid.cells.size()) {
+            return grid.spots.values();
+        }
+        List<IndexedSpot> found = new ArrayList<>();
+        for (long row = minRow; row <= maxRow; row++) {
+            for (long col = minCol; col <= maxCol; col++) {
+                Set<Long> ids = grid.cells.get(cellKey(row, col));
+                if (ids == null) {
+                    continue;
+                }
+                for (Long id : ids) {
+                    IndexedSpot spot = grid.spots.get(id);
+                    if (spot != null) {
+                        found.add(spot);
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    private synchronized void index(Long id, String region, double latitude, double longitude,
+                                    boolean available) {
+        Grid grid = grids.computeIfAbsent(region, k -> new Grid());
+        long cell = cellKey(cellIndex(latitude), cellIndex(longitude));
+        IndexedSpot previous = grid.spots.put(id, new IndexedSpot(id, latitude, longitude, available, cell));
+        if (previous != null && previous.cell() != cell) {
+            removeFromCell(grid, previous.cell(), id);
+        }
+        grid.cells.computeIfAbsent(cell, k -> ConcurrentHashMap.newKeySet()).add(id);
+    }
+
+    private synchronized void setAvailable(String region, Long id, boolean available) {
+        Grid grid = grids.get(region);
+        if (grid != null) {
+            grid.spots.computeIfPresent(id, (k, spot) -> spot.withAvailable(available));
+        }
+    }
+
+    private synchronized void remove(String region, Long id) {
+        Grid grid = grids.get(region);
+        IndexedSpot previous = grid == null ? null : grid.spots.remove(id);
+        if (previous != null) {
+            removeFromCell(grid, previous.cell(), id);
+        }
+    }
+
+    private static void removeFromCell(Grid grid, long cell, Long id) {
+        Set<Long> ids = grid.cells.get(cell);
+        if (ids != null) {
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                grid.cells.remove(cell);
+            }
+        }
+    }
+
+    private long cellIndex(double degrees) {
+        return (long) Math.floor(degrees / cellDegrees);
+    }
+
+    private static long cellKey(long row, long col) {
+        return (row << 32) | (col & 0xFFFFFFFFL);
+    }
+
+    private record IndexedSpot(Long id, double latitude, double longitude, boolean available, long cell) {
+
+        IndexedSpot withAvailable(boolean value) {
+            return new IndexedSpot(id, latitude, longitude, value, cell);
+        }
+    }
+
+    private record Candidate(Long id, double distance) {
+    }
+
+    // One region's spots and cells; regions never share cells, so a query's cost depends on its region only
+    private static final class Grid {
+        private final Map<Long, IndexedSpot> spots = new ConcurrentHashMap<>();
+        private final Map<Long, Set<Long>> cells = new ConcurrentHashMap<>();
+    }
+}
@@ -1,108 +1,166 @@
 package com.smart.parking.backend.impl;
 
+import com.smart.parking.backend.cache.ParkingSpotByIdCache;
 import com.smart.parking.backend.dto.ParkingSpotDTO;
 import com.smart.parking.backend.event.ParkingSpotUpdateEvent;
+import com.smart.parking.backend.exception.BadRequestException;
+import com.smart.parking.backend.exception.ConflictException;
 import com.smart.parking.backend.exception.ResourceNotFoundException;
 import com.smart.parking.backend.model.ParkingSpot;
 import com.smart.parking.backend.repository.ParkingSpotRepository;
+import com.smart.parking.backend.service.OccupancyPricingEngine;
 import com.smart.parking.backend.service.ParkingSpotService;
+import com.smart.parking.backend.service.RegionRouter;
+import com.smart.parking.backend.service.SpatialQueryEngine;
+import com.smart.parking.backend.service.SpotHoldTable;
 import com.smart.parking.backend.util.GeometryUtil;
+import com.smart.parking.backend.util.ParkingSpotMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.List;
 
+import static com.smart.parking.backend.util.SampledLogFilter.SAMPLED;
+
 @Service
 @Slf4j
 public class ParkingSpotServiceImpl implements ParkingSpotService {
 
     private static final String ENTITY_NAME = "ParkingSpot"; // Constant to avoid duplication
     private static final String FIELD_ID = "id";
+    // DB (query plus entity hydration) versus entity-to-DTO mapping, per read method
+    private static final String PHASE_TIMER = "parking.service.phase";
+    private static final String NEARBY_ROWS = "parking.nearby.rows";
 
     private final ParkingSpotRepository repository;
+    private final SpatialQueryEngine spatialQueryEngine;
+    private final ParkingSpotByIdCache spotCache;
+    private final RegionRouter regionRouter;
+    private final SpotHoldTable holdTable;
+    private final OccupancyPricingEngine pricingEngine;
+    private final int maxHoldMinutes;
     private final GeometryUtil geometryUtil;
     private final ApplicationEventPublisher eventPublisher;
 
+    private final Phases allPhases;
+    private final Phases availablePhases;
+    private final Phases nearbyPhases;
+    private final Phases availableNearbyPhases;
+    private final DistributionSummary nearbyRows;
+    private final DistributionSummary availableNearbyRows;
+
     @Autowired
     public ParkingSpotServiceImpl(
             ParkingSpotRepository repository,
+            SpatialQueryEngine spatialQueryEngine,
+            ParkingSpotByIdCache spotCache,
+            RegionRouter regionRouter,
+            SpotHoldTable holdTable,
+            OccupancyPricingEngine pricingEngine,
+            @Value("${holds.max-minutes:30}") int maxHoldMinutes,
             GeometryUtil geometryUtil,
-            ApplicationEventPublisher eventPublisher) {
+            ApplicationEventPublisher eventPublisher,
+            MeterRegistry meterRegistry) {
         this.repository = repository;
+        this.spatialQueryEngine = spatialQueryEngine;
+        this.spotCache = spotCache;
+        this.regionRouter = regionRouter;
+        this.holdTable = holdTable;
+        this.pricingEngine = pricingEngine;
+        this.maxHoldMinutes = maxHoldMinutes;
         this.geometryUtil = geometryUtil;
         this.eventPublisher = eventPublisher;
+        this.allPhases = Phases.register(meterRegistry, "getAllParkingSpots");
+        this.availablePhases = Phases.register(meterRegistry, "getAvailableParkingSpots");
+        this.nearbyPhases = Phases.register(meterRegistry, "getNearbyParkingSpots");
+        this.availableNearbyPhases = Phases.register(meterRegistry, "getAvailableNearbyParkingSpots");
+        this.nearbyRows = rowsSummary(meterRegistry, "getNearbyParkingSpots", spatialQueryEngine.getName());
+        this.availableNearbyRows = rowsSummary(meterRegistry, "getAvailableNearbyParkingSpots", spatialQueryEngine.getName());
     }
 
     @Override
-    public List<ParkingSpotDTO> getAllParkingSpots() {
-        log.info("Fetching all parking spots");
-        List<ParkingSpot> spots = repository.findAll();
-        log.debug("Found {} parking spots", spots.size());
-
-        return spots.stream()
-                .map(this::convertToDTO)
-                .toList(); // Using toList() instead of collect(Collectors.toList())
+    public List<ParkingSpotDTO> getAllParkingSpots(String region) {
+        List<ParkingSpot> spots = allPhases.db().record(() -> repository.findAllByRegion(region));
+        log.atDebug().addMarker(SAMPLED)
+                .addKeyValue("region", region)
+                .addKeyValue("rows", spots.size())
+                .log("Fetched all parking spots");
+
+        return allPhases.mapping().record(() -> withLiveState(spots.stream()
+                .map(ParkingSpotMapper::toDTO)
+                .toList(), false)); // Using toList() instead of collect(Collectors.toList())
     }
 
     @Override
-    public List<ParkingSpotDTO> getAvailableParkingSpots() {
-        log.info("Fetching available parking spots");
-        List<ParkingSpot> spots = repository.findAllAvailable();
-        log.debug("Found {} available parking spots", spots.size());
-
-        return spots.stream()
-                .map(this::convertToDTO)
-                .toList();
+    public List<ParkingSpotDTO> getAvailableParkingSpots(String region) {
+        List<ParkingSpot> spots = availablePhases.db().record(() -> repository.findAllAvailable(region));
+        log.atDebug().addMarker(SAMPLED)
+                .addKeyValue("region", region)
+                .addKeyValue("rows", spots.size())
+                .log("Fetched available parking spots");
+
+        return availablePhases.mapping().record(() -> withLiveState(spots.stream()
+                .map(ParkingSpotMapper::toDTO)
+                .toList(), true));
     }
 
     @Override
-    public List<ParkingSpotDTO> getNearbyParkingSpots(double latitude, double longitude, double radiusInMeters) {
-        log.info("Finding parking spots near coordinates: lat={}, lng={}, radius={}m", latitude, longitude, radiusInMeters);
-
+    public List<ParkingSpotDTO> getNearbyParkingSpots(String region, double latitude, double longitude, double radiusInMeters, boolean orderByDistance) {
         try {
-            List<ParkingSpot> spots = repository.findNearby(latitude, longitude, radiusInMeters);
-            log.debug("Found {} nearby parking spots", spots.size());
-
-            return spots.stream()
-                    .map(this::convertToDTO)
-                    .toList();
+            List<ParkingSpot> spots = nearbyPhases.db().record(() ->
+                    spatialQueryEngine.findNearby(region, latitude, longitude, radiusInMeters, false, orderByDistance));
+            nearbyRows.record(spots.size());
+            logNearby("Nearby search", region, latitude, longitude, radiusInMeters, spots.size());
+
+            return nearbyPhases.mapping().record(() -> withLiveState(spots.stream()
+                    .map(ParkingSpotMapper::toDTO)
+                    .toList(), false));
         } catch (Exception e) {
-            log.error("Error finding nearby parking spots. This may occur if PostGIS extension is not enabled or database doesn't support spatial queries.", e);
-            throw new RuntimeException("Failed to find nearby parking spots. Ensure PostGIS extension is enabled in PostgreSQL.", e);
+            log.error("Error finding nearby parking spots with the {} spatial engine", spatialQueryEngine.getName(), e);
+            throw new RuntimeException("Failed to find nearby parking spots", e);
         }
     }
 
     @Override
-    public List<ParkingSpotDTO> getAvailableNearbyParkingSpots(double latitude, double longitude, double radiusInMeters) {
-        log.info("Finding available parking spots near coordinates: lat={}, lng={}, radius={}m", latitude, longitude, radiusInMeters);
-
+    public List<ParkingSpotDTO> getAvailableNearbyParkingSpots(String region, double latitude, double longitude, double radiusInMeters, boolean orderByDistance) {
         try {
-            List<ParkingSpot> spots = repository.findAvailableNearby(latitude, longitude, radiusInMeters);
-            log.debug("Found {} available nearby parking spots", spots.size());
-
-            return spots.stream()
-                    .map(this::convertToDTO)
-                    .toList();
+            List<ParkingSpot> spots = availableNearbyPhases.db().record(() ->
+                    spatialQueryEngine.findNearby(region, latitude, longitude, radiusInMeters, true, orderByDistance));
+            availableNearbyRows.record(spots.size());
+            logNearby("Available nearby search", region, latitude, longitude, radiusInMeters, spots.size());
+
+            return availableNearbyPhases.mapping().record(() -> withLiveState(spots.stream()
+                    .map(ParkingSpotMapper::toDTO)
+                    .toList(), true));
         } catch (Exception e) {
-            log.error("Error finding available nearby parking spots. This may occur if PostGIS extension is not enabled or database doesn't support spatial queries.", e);
-            throw new RuntimeException("Failed to find available nearby parking spots. Ensure PostGIS extension is enabled in PostgreSQL.", e);
+            log.error("Error finding available nearby parking spots with the {} spatial engine", spatialQueryEngine.getName(), e);
+            throw new RuntimeException("Failed to find available nearby parking spots", e);
         }
     }
 
     @Override
     public ParkingSpotDTO getParkingSpotById(Long id) {
-        log.info("Retrieving parking spot with ID: {}", id);
+        ParkingSpotDTO parkingSpot = withLiveState(loadSpot(id));
 
-        ParkingSpot parkingSpot = repository.findById(id)
-                .orElseThrow(() -> {
-                    log.error("Parking spot not found with ID: {}", id);
-                    return new ResourceNotFoundException(ENTITY_NAME, FIELD_ID, id);
-                });
+        log.atDebug().addMarker(SAMPLED).addKeyValue("spotId", id).log("Retrieved parking spot");
+        return parkingSpot;
+    }
 
-        log.debug("Successfully retrieved parking spot with ID: {}", id);
-        return convertToDTO(parkingSpot);
+    @Override
+    public String getParkingSpotRegion(Long id) {
+        ParkingSpotDTO cached = spotCache.getIfPresent(id);
+        if (cached != null) {
+            return cached.getRegion();
+        }
+        return repository.findRegionById(id)
+                .orElseThrow(() -> new ResourceNotFoundException(ENTITY_NAME, FIELD_ID, id));
     }
 
     @Override
@@ -110,16 +168,23 @@ public class ParkingSpotServiceImpl implements ParkingSpotService {
         log.info("Creating new parking spot at address: {}", parkingSpotDTO.getAddress());
 
         try {
-            ParkingSpot parkingSpot = convertToEntity(parkingSpotDTO);
+            ParkingSpot parkingSpot = ParkingSpotMapper.toEntity(parkingSpotDTO);
+            // Region is fixed at creation: the one given, else the one whose bounds contain the spot
+            parkingSpot.setRegion(parkingSpotDTO.getRegion() != null
+                    ? RegionRouter.validName(parkingSpotDTO.getRegion())
+                    : regionRouter.regionAt(parkingSpot.getLatitude(), parkingSpot.getLongitude()));
+            regionRouter.requireOwned(parkingSpot.getRegion());
             parkingSpot.setLocation(geometryUtil.createPoint(parkingSpot.getLongitude(), parkingSpot.getLatitude()));
             ParkingSpot savedParkingSpot = repository.save(parkingSpot);
+            ParkingSpotDTO saved = ParkingSpotMapper.toDTO(savedParkingSpot);
+            spotCache.put(saved);
 
             // Publish event instead of direct service call
             eventPublisher.publishEvent(new ParkingSpotUpdateEvent(this, savedParkingSpot.getId(),
-                    savedParkingSpot.isAvailable(), "CREATE"));
+                    savedParkingSpot.getRegion(), savedParkingSpot.isAvailable(), "CREATE"));
 
             log.info("Successfully created parking spot with ID: {}", savedParkingSpot.getId());
-            return convertToDTO(savedParkingSpot);
+            return withLiveState(saved);
         } catch (Exception e) {
             log.error("Failed to create parking spot at address: {}", parkingSpotDTO.getAddress(), e);
             throw e;
@@ -136,6 +201,7 @@ public class ParkingSpotServiceImpl implements ParkingSpotService {
                         log.error("Parking spot not found for update with ID: {}", id);
                         return new ResourceNotFoundException(ENTITY_NAME, FIELD_ID, id);
                     });
+            regionRouter.requireOwned(existingParkingSpot.getRegion());
 
             existingParkingSpot.setAddress(parkingSpotDTO.getAddress());
             existingParkingSpot.setLatitude(parkingSpotDTO.getLatitude());
@@ -146,13 +212,15 @@ public class ParkingSpotServiceImpl implements ParkingSpotService {
             existingParkingSpot.setRestrictions(parkingSpotDTO.getRestrictions());
 
             ParkingSpot updatedParkingSpot = repository.save(existingParkingSpot);
+            ParkingSpotDTO updated = ParkingSpotMapper.toDTO(updatedParkingSpot);
+            spotCache.put(updated);
 
             // Publish event instead of direct service call
             eventPublisher.publishEvent(new ParkingSpotUpdateEvent(this, updatedParkingSpot.getId(),
-                    updatedParkingSpot.isAvailable(), "UPDATE"));
+                    updatedParkingSpot.getRegion(), updatedParkingSpot.isAvailable(), "UPDATE"));
 
             log.info("Successfully updated parking spot with ID: {}", id);
-            return convertToDTO(updatedParkingSpot);
+            return withLiveState(updated);
         } catch (Exception e) {
             log.error("Failed to update parking spot with ID: {}", id, e);
             throw e;
@@ -163,16 +231,22 @@ public class ParkingSpotServiceImpl implements ParkingSpotService {
     public void deleteParkingSpot(Long id) {
         log.info("Deleting parking spot with ID: {}", id);
 
-        if (!repository.existsById(id)) {
-            log.error("Parking spot not found for deletion with ID: {}", id);
-            throw new ResourceNotFoundException(ENTITY_NAME, FIELD_ID, id);
-        }
+        ParkingSpot parkingSpot = repository.findById(id)
+                .orElseThrow(() -> {
+                    log.error("Parking spot not found for deletion with ID: {}", id);
+                    return new ResourceNotFoundException(ENTITY_NAME, FIELD_ID, id);
+                });
+        regionRouter.requireOwned(parkingSpot.getRegion());
 
         try {
             repository.deleteById(id);
+            spotCache.evict(id);
 
-            // Publish event for deletion
-            eventPublisher.publishEvent(new ParkingSpotUpdateEvent(this, id, false, "DELETE"));
+            // Publish event for deletion, with the last state so subscribers can match and drop the spot
+            ParkingSpotDTO removed = ParkingSpotMapper.toDTO(parkingSpot);
+            removed.setAvailable(false);
+            eventPublisher.publishEvent(new ParkingSpotUpdateEvent(this, id, parkingSpot.getRegion(), false, "DELETE",
+                    removed));
 
             log.info("Successfully deleted parking spot with ID: {}", id);
         } catch (Exception e) {
@@ -183,51 +257,136 @@ public class ParkingSpotServiceImpl implements ParkingSpotService {
 
     @Override
     public ParkingSpotDTO updateSpotAvailability(Long id, boolean available) {
-        log.info("Updating availability of parking spot ID {} to: {}", id, available);
-
         try {
             ParkingSpot parkingSpot = repository.findById(id)
                     .orElseThrow(() -> {
                         log.error("Parking spot not found for availability update with ID: {}", id);
                         return new ResourceNotFoundException(ENTITY_NAME, FIELD_ID, id);
                     });
+            regionRouter.requireOwned(parkingSpot.getRegion());
 
             parkingSpot.setAvailable(available);
             ParkingSpot updatedSpot = repository.save(parkingSpot);
+            ParkingSpotDTO updated = ParkingSpotMapper.toDTO(updatedSpot);
+            spotCache.put(updated);
 
             // Publish event for availability update
-            eventPublisher.publishEvent(new ParkingSpotUpdateEvent(this, id, available, "AVAILABILITY_UPDATE"));
-
-            log.info("Successfully updated availability of parking spot ID: {}", id);
-            return convertToDTO(updatedSpot);
+            eventPublisher.publishEvent(new ParkingSpotUpdateEvent(this, id, parkingSpot.getRegion(), available,
+                    "AVAILABILITY_UPDATE"));
+
+            log.atInfo().addMarker(SAMPLED)
+                    .addKeyValue("spotId", id)
+                    .addKeyValue("available", available)
+                    .log("Updated availability");
+            return withLiveState(updated);
         } catch (Exception e) {
             log.error("Failed to update availability of parking spot ID: {}", id, e);
             throw e;
         }
     }
 
-    // Helper methods for DTO conversion
-    private ParkingSpotDTO convertToDTO(ParkingSpot parkingSpot) {
-        ParkingSpotDTO dto = new ParkingSpotDTO();
-        dto.setId(parkingSpot.getId());
-        dto.setAddress(parkingSpot.getAddress());
-        dto.setLatitude(parkingSpot.getLatitude());
-        dto.setLongitude(parkingSpot.getLongitude());
-        dto.setAvailable(parkingSpot.isAvailable());
-        dto.setPrice(parkingSpot.getPrice());
-        dto.setRestrictions(parkingSpot.getRestrictions());
-        return dto;
-    }
-
-    private ParkingSpot convertToEntity(ParkingSpotDTO dto) {
-        ParkingSpot entity = new ParkingSpot();
-        entity.setId(dto.getId());
-        entity.setAddress(dto.getAddress());
-        entity.setLatitude(dto.getLatitude());
-        entity.setLongitude(dto.getLongitude());
-        entity.setAvailable(dto.isAvailable());
-        entity.setPrice(dto.getPrice());
-        entity.setRestrictions(dto.getRestrictions());
-        return entity;
+    @Override
+    public ParkingSpotDTO holdParkingSpot(Long id, Long userId, int minutes) {
+        if (minutes < 1 || minutes > maxHoldMinutes) {
+            throw new BadRequestException("Hold duration must be between 1 and " + maxHoldMinutes + " minutes");
+        }
+        // Availability comes from the spot cache, so losing a race costs no database access at all
+        ParkingSpotDTO spot = loadSpot(id);
+        regionRouter.requireOwned(spot.getRegion());
+        if (!spot.isAvailable()) {
+            throw new ConflictException("Parking spot " + id + " is not available");
+        }
+
+        SpotHoldTable.Hold hold = holdTable.claim(id, spot.getRegion(), userId, Duration.ofMinutes(minutes));
+        if (!hold.userId().equals(userId)) {
+            throw new ConflictException("Parking spot " + id + " is held until " + hold.expiresAt());
+        }
+        log.atInfo().addMarker(SAMPLED)
+                .addKeyValue("spotId", id)
+                .addKeyValue("region", spot.getRegion())
+                .addKeyValue("until", hold.expiresAt())
+                .log("Held parking spot");
+        return withLiveState(spot);
+    }
+
+    @Override
+    public void releaseParkingSpotHold(Long id, Long userId) {
+        if (!holdTable.release(id, userId)) {
+            throw new ResourceNotFoundException("SpotHold", "spotId", id);
+        }
+        log.atInfo().addMarker(SAMPLED).addKeyValue("spotId", id).log("Released parking spot hold");
+    }
+
+    private ParkingSpotDTO loadSpot(Long id) {
+        return spotCache.get(id, key -> {
+            ParkingSpot spot = repository.findById(key)
+                    .orElseThrow(() -> {
+                        log.error("Parking spot not found with ID: {}", key);
+                        return new ResourceNotFoundException(ENTITY_NAME, FIELD_ID, key);
+                    });
+            // Updates of other regions' spots never reach this node, so a copy of one would never be refreshed
+            regionRouter.requireOwned(spot.getRegion());
+            return ParkingSpotMapper.toDTO(spot);
+        });
+    }
+
+    private ParkingSpotDTO withLiveState(ParkingSpotDTO spot) {
+        spot.setEffectivePrice(pricingEngine.effectivePrice(spot));
+        applyHold(spot);
+        return spot;
+    }
+
+    /**
+     * Adds effective prices, marks held spots, and drops those when only available ones were asked for.
+     */
+    private List<ParkingSpotDTO> withLiveState(List<ParkingSpotDTO> spots, boolean availableOnly) {
+        spots.forEach(spot -> spot.setEffectivePrice(pricingEngine.effectivePrice(spot)));
+        if (holdTable.isEmpty()) {
+            return spots;
+        }
+        spots.forEach(this::applyHold);
+        return availableOnly ? spots.stream().filter(ParkingSpotDTO::isAvailable).toList() : spots;
+    }
+
+    private void applyHold(ParkingSpotDTO spot) {
+        SpotHoldTable.Hold hold = holdTable.find(spot.getId());
+        if (hold != null) {
+            spot.setAvailable(false);
+            spot.setHeldUntil(hold.expiresAt());
+        }
+    }
+
+    private static DistributionSummary rowsSummary(MeterRegistry meterRegistry, String method, String engine) {
+        return DistributionSummary.builder(NEARBY_ROWS)
+                .description("Spots returned per nearby search")
+                .tag("method", method)
+                .tag("engine", engine)
+                .register(meterRegistry);
+    }
+
+    private void logNearby(String message, String region, double latitude, double longitude, double radiusInMeters,
+                           int rows) {
+        log.atInfo().addMarker(SAMPLED)
+                .addKeyValue("region", region)
+                .addKeyValue("lat", latitude)
+                .addKeyValue("lng", longitude)
+                .addKeyValue("radius", radiusInMeters)
+                .addKeyValue("rows", rows)
+                .addKeyValue("engine", spatialQueryEngine.getName())
+                .log(message);
+    }
+
+    private record Phases(Timer db, Timer mapping) {
+
+        static Phases register(MeterRegistry meterRegistry, String method) {
+            return new Phases(phaseTimer(meterRegistry, method, "db"), phaseTimer(meterRegistry, method, "mapping"));
+        }
+
+        private static Timer phaseTimer(MeterRegistry meterRegistry, String method, String phase) {
+            return Timer.builder(PHASE_TIMER)
+                    .tag("method", method)
+                    .tag("phase", phase)
+                    .register(meterRegistry);
+        }
     }
 }
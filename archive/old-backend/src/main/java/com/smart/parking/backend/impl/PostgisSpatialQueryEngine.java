@@ -0,0 +1,37 @@
+package com.smart.parking.backend.impl;
+
+import com.smart.parking.backend.model.ParkingSpot;
+import com.smart.parking.backend.repository.ParkingSpotRepository;
+import com.smart.parking.backend.service.SpatialQueryEngine;
+
+import java.util.List;
+
+/**
+ * Delegates to the native PostGIS queries on {@code parking_spots.location_geog}.
+ */
+public class PostgisSpatialQueryEngine implements SpatialQueryEngine {
+
+    private final ParkingSpotRepository repository;
+
+    public PostgisSpatialQueryEngine(ParkingSpotRepository repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    public List<ParkingSpot> findNearby(String region, double latitude, double longitude, double radiusInMeters,
+                                        boolean availableOnly, boolean orderByDistance) {
+        if (availableOnly) {
+            return orderByDistance
+                    ? repository.findAvailableNearbyOrderByDistance(region, latitude, longitude, radiusInMeters)
+                    : repository.findAvailableNearby(region, latitude, longitude, radiusInMeters);
+        }
+        return orderByDistance
+                ? repository.findNearbyOrderByDistance(region, latitude, longitude, radiusInMeters)
+                : repository.findNearby(region, latitude, longitude, radiusInMeters);
+    }
+
+    @Override
+    public String getName() {
+        return "postgis";
+    }
+}
@@ -0,0 +1,91 @@
+package com.smart.parking.backend.listener;
+
+import com.smart.parking.backend.util.WireFormats;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Subscriptions to the {@code .cbor} STOMP topics. Only sessions on the native WebSocket endpoint may
+ * subscribe (SockJS delivers every frame as text), and the count per topic lets broadcasts skip encoding
+ * CBOR nobody receives.
+ */
+@Component
+public class CborSubscriptions implements ChannelInterceptor {
+
+    // Destination -> number of subscriptions; absent when there are none
+    private final Map<String, Integer> subscribers = new ConcurrentHashMap<>();
+    // STOMP session id -> subscription id -> destination
+    private final Map<String, Map<String, String>> sessions = new ConcurrentHashMap<>();
+
+    public boolean hasSubscribers(String destination) {
+        return subscribers.containsKey(destination);
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() != StompCommand.SUBSCRIBE || !isCbor(accessor.getDestination())) {
+            return message;
+        }
+        Map<String, Object> attributes = accessor.getSessionAttributes();
+        if (attributes == null || !Boolean.TRUE.equals(attributes.get(WireFormats.BINARY_FRAMES_ATTRIBUTE))) {
+            throw new MessageDeliveryException("CBOR topics need the native WebSocket endpoint");
+        }
+        return message;
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        String destination = accessor.getDestination();
+        if (!isCbor(destination) || accessor.getSessionId() == null || accessor.getSubscriptionId() == null) {
+            return;
+        }
+        String previous = sessions.computeIfAbsent(accessor.getSessionId(), k -> new ConcurrentHashMap<>())
+                .put(accessor.getSubscriptionId(), destination);
+        subscribers.merge(destination, 1, Integer::sum);
+        if (previous != null) {
+            release(previous);
+        }
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        Map<String, String> subscriptions = accessor.getSessionId() == null ? null : sessions.get(accessor.getSessionId());
+        String destination = subscriptions == null || accessor.getSubscriptionId() == null
+                ? null : subscriptions.remove(accessor.getSubscriptionId());
+        if (destination != null) {
+            release(destination);
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        Map<String, String> subscriptions = sessions.remove(event.getSessionId());
+        if (subscriptions != null) {
+            subscriptions.values().forEach(this::release);
+        }
+    }
+
+    private void release(String destination) {
+        subscribers.computeIfPresent(destination, (k, count) -> count > 1 ? count - 1 : null);
+    }
+
+    private static boolean isCbor(String destination) {
+        return destination != null && destination.endsWith(WireFormats.CBOR_TOPIC_SUFFIX);
+    }
+}
@@ -3,33 +3,107 @@ package com.smart.parking.backend.listener;
 import com.smart.parking.backend.dto.ParkingSpotDTO;
 import com.smart.parking.backend.dto.ParkingSpotUpdateMessage;
 import com.smart.parking.backend.event.ParkingSpotUpdateEvent;
+import com.smart.parking.backend.service.AvailabilityStreamService;
 import com.smart.parking.backend.service.ParkingSpotService;
-import lombok.RequiredArgsConstructor;
+import com.smart.parking.backend.service.RegionRouter;
+import com.smart.parking.backend.util.WireFormats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.event.EventListener;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.TimeUnit;
+
+import static com.smart.parking.backend.util.SampledLogFilter.SAMPLED;
+
+/**
+ * Broadcasts each update to its region only: {@code /topic/parking-updates.<region>} (plain
+ * {@code /topic/parking-updates} for the default region) and the region's SSE subscribers. A deletion is
+ * sent as a {@code DELETE} message carrying the spot's last state. The region's {@code .cbor} topic only
+ * gets a CBOR-encoded copy while someone subscribes to it.
+ */
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class ParkingSpotEventListener {
 
+    private static final String UPDATES_TOPIC = "/topic/parking-updates";
+    private static final String BROADCAST_TIMER = "parking.broadcast.duration";
+    private static final String DELETE = "DELETE";
+
     private final SimpMessagingTemplate messagingTemplate;
     private final ParkingSpotService parkingSpotService;
+    private final AvailabilityStreamService availabilityStreamService;
+    private final RegionRouter regionRouter;
+    private final CborSubscriptions cborSubscriptions;
+    private final WireFormats wireFormats;
+
+    private final Timer dispatchLag;
+    private final Timer stompJsonTimer;
+    private final Timer stompCborTimer;
+    private final Timer sseTimer;
+
+    public ParkingSpotEventListener(SimpMessagingTemplate messagingTemplate,
+                                    ParkingSpotService parkingSpotService,
+                                    AvailabilityStreamService availabilityStreamService,
+                                    RegionRouter regionRouter,
+                                    CborSubscriptions cborSubscriptions,
+                                    WireFormats wireFormats,
+                                    MeterRegistry meterRegistry) {
+        this.messagingTemplate = messagingTemplate;
+        this.parkingSpotService = parkingSpotService;
+        this.availabilityStreamService = availabilityStreamService;
+        this.regionRouter = regionRouter;
+        this.cborSubscriptions = cborSubscriptions;
+        this.wireFormats = wireFormats;
+        this.dispatchLag = Timer.builder("parking.event.dispatch.lag")
+                .description("Time from publishing a spot update event until this listener runs")
+                .register(meterRegistry);
+        this.stompJsonTimer = Timer.builder(BROADCAST_TIMER).tag("channel", "stomp").register(meterRegistry);
+        this.stompCborTimer = Timer.builder(BROADCAST_TIMER).tag("channel", "stomp_cbor").register(meterRegistry);
+        this.sseTimer = Timer.builder(BROADCAST_TIMER).tag("channel", "sse_enqueue").register(meterRegistry);
+    }
 
     @EventListener
     public void handleParkingSpotUpdate(ParkingSpotUpdateEvent event) {
-        log.info("Handling parking spot update event for spot ID: {}", event.getSpotId());
+        dispatchLag.record(System.nanoTime() - event.getPublishedNanos(), TimeUnit.NANOSECONDS);
 
         try {
-            ParkingSpotDTO spot = parkingSpotService.getParkingSpotById(event.getSpotId());
+            ParkingSpotDTO spot = DELETE.equals(event.getUpdateType())
+                    ? removedSpot(event)
+                    : parkingSpotService.getParkingSpotById(event.getSpotId());
             ParkingSpotUpdateMessage message = new ParkingSpotUpdateMessage(event.getUpdateType(), spot);
+            String topic = regionRouter.topic(UPDATES_TOPIC, event.getRegion());
 
-            messagingTemplate.convertAndSend("/topic/parking-updates", message);
-            log.debug("Broadcasted parking spot update for spot ID: {}", event.getSpotId());
+            stompJsonTimer.record(() -> messagingTemplate.convertAndSend(topic, message));
+            String cborTopic = topic + WireFormats.CBOR_TOPIC_SUFFIX;
+            if (cborSubscriptions.hasSubscribers(cborTopic)) {
+                Timer.Sample sample = Timer.start();
+                byte[] cbor = wireFormats.cbor().writeValueAsBytes(message);
+                messagingTemplate.send(cborTopic,
+                        MessageBuilder.createMessage(cbor, WireFormats.stompHeaders(WireFormats.APPLICATION_CBOR_MIME)));
+                sample.stop(stompCborTimer);
+            }
+            sseTimer.record(() -> availabilityStreamService.publish(event.getRegion(), message));
+            log.atDebug().addMarker(SAMPLED)
+                    .addKeyValue("spotId", event.getSpotId())
+                    .addKeyValue("region", event.getRegion())
+                    .addKeyValue("type", event.getUpdateType())
+                    .log("Broadcast parking spot update");
         } catch (Exception e) {
             log.error("Failed to broadcast parking spot update for spot ID: {}", event.getSpotId(), e);
         }
     }
-}
\ No newline at end of file
+
+    private static ParkingSpotDTO removedSpot(ParkingSpotUpdateEvent event) {
+        if (event.getRemovedSpot() != null) {
+            return event.getRemovedSpot();
+        }
+        ParkingSpotDTO spot = new ParkingSpotDTO();
+        spot.setId(event.getSpotId());
+        spot.setRegion(event.getRegion());
+        return spot;
+    }
+}
@@ -17,6 +17,11 @@ public class ParkingSpot {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // City/region the spot belongs to; fixed at creation. PostgreSQL partitions the table by it, and ids
+    // are unique across regions (V7 migration)
+    @Column(nullable = false, length = 32, updatable = false)
+    private String region;
+
     @Column(nullable = false)
     private String address;
 
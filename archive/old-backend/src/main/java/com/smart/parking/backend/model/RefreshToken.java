@@ -0,0 +1,40 @@
+package com.smart.parking.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Persisted copy of a refresh token session. Only the SHA-256 of the token is stored; the live state is
+ * held in memory by {@code RefreshTokenStore} and written here periodically.
+ */
+@Entity
+@Table(name = "refresh_tokens", indexes = @Index(name = "idx_refresh_tokens_family", columnList = "family_id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefreshToken {
+
+    @Id
+    @Column(name = "token_hash", length = 64)
+    private String tokenHash;
+
+    @Column(name = "family_id", nullable = false, length = 36)
+    private String familyId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    // Set once the token has been exchanged; presenting it again means it leaked
+    private boolean used;
+
+    // Hash of the used token this one replaced, removed on the next rotation
+    @Column(name = "previous_hash", length = 64)
+    private String previousHash;
+}
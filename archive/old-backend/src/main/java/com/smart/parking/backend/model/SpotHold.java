@@ -0,0 +1,33 @@
+package com.smart.parking.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Persisted copy of a live spot hold. Claims and releases happen in memory in {@code SpotHoldTable}, which
+ * writes them here periodically and reloads them at startup.
+ */
+@Entity
+@Table(name = "spot_holds", indexes = @Index(name = "idx_spot_holds_expires_at", columnList = "expires_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SpotHold {
+
+    @Id
+    @Column(name = "spot_id")
+    private Long spotId;
+
+    @Column(nullable = false, length = 32)
+    private String region;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+}
@@ -6,19 +6,59 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
+/**
+ * Every list and search query is scoped to one region; on PostgreSQL the region predicate prunes the
+ * scan to that region's partition.
+ */
 @Repository
 public interface ParkingSpotRepository extends JpaRepository<ParkingSpot, Long> {
 
-    @Query("SELECT p FROM ParkingSpot p WHERE p.available = true")
-    List<ParkingSpot> findAllAvailable();
+    @Query("SELECT p FROM ParkingSpot p WHERE p.region = :region")
+    List<ParkingSpot> findAllByRegion(@Param("region") String region);
 
-    // PostgreSQL/PostGIS spatial query for nearby spots
-    @Query(value = "SELECT * FROM parking_spots p WHERE ST_DWithin(p.location::geography, ST_SetSRID(ST_MakePoint(:longitude, :latitude), 4326)::geography, :distance)", nativeQuery = true)
-    List<ParkingSpot> findNearby(@Param("latitude") double latitude, @Param("longitude") double longitude, @Param("distance") double distanceInMeters);
+    @Query("SELECT p FROM ParkingSpot p WHERE p.region = :region AND p.available = true")
+    List<ParkingSpot> findAllAvailable(@Param("region") String region);
 
-    // PostgreSQL/PostGIS spatial query for available nearby spots
-    @Query(value = "SELECT * FROM parking_spots p WHERE p.available = true AND ST_DWithin(p.location::geography, ST_SetSRID(ST_MakePoint(:longitude, :latitude), 4326)::geography, :distance)", nativeQuery = true)
-    List<ParkingSpot> findAvailableNearby(@Param("latitude") double latitude, @Param("longitude") double longitude, @Param("distance") double distanceInMeters);
-}
\ No newline at end of file
+    // A spot's region is fixed at creation; used to route id requests before anything else is read
+    @Query("SELECT p.region FROM ParkingSpot p WHERE p.id = :id")
+    Optional<String> findRegionById(@Param("id") Long id);
+
+    // Coordinates and availability only, for the in-memory spatial index
+    @Query("SELECT p.id AS id, p.region AS region, p.latitude AS latitude, p.longitude AS longitude, p.available AS available FROM ParkingSpot p")
+    List<SpotLocation> findAllLocations();
+
+    // Same, for a node that holds only some regions in memory
+    @Query("SELECT p.id AS id, p.region AS region, p.latitude AS latitude, p.longitude AS longitude, p.available AS available FROM ParkingSpot p WHERE p.region IN :regions")
+    List<SpotLocation> findAllLocationsByRegionIn(@Param("regions") Collection<String> regions);
+
+    // PostgreSQL/PostGIS spatial queries for nearby spots. location_geog is a stored geography copy of
+    // location (see V4 migration), so the GiST index applies and no row is cast at query time.
+    @Query(value = "SELECT * FROM parking_spots p WHERE p.region = :region AND ST_DWithin(p.location_geog, ST_SetSRID(ST_MakePoint(:longitude, :latitude), 4326)::geography, :distance)", nativeQuery = true)
+    List<ParkingSpot> findNearby(@Param("region") String region, @Param("latitude") double latitude, @Param("longitude") double longitude, @Param("distance") double distanceInMeters);
+
+    @Query(value = "SELECT * FROM parking_spots p WHERE p.region = :region AND p.available = true AND ST_DWithin(p.location_geog, ST_SetSRID(ST_MakePoint(:longitude, :latitude), 4326)::geography, :distance)", nativeQuery = true)
+    List<ParkingSpot> findAvailableNearby(@Param("region") String region, @Param("latitude") double latitude, @Param("longitude") double longitude, @Param("distance") double distanceInMeters);
+
+    // Closest first; <-> is answered from the same GiST index (KNN) instead of sorting computed distances
+    @Query(value = "SELECT * FROM parking_spots p WHERE p.region = :region AND ST_DWithin(p.location_geog, ST_SetSRID(ST_MakePoint(:longitude, :latitude), 4326)::geography, :distance) ORDER BY p.location_geog <-> ST_SetSRID(ST_MakePoint(:longitude, :latitude), 4326)::geography", nativeQuery = true)
+    List<ParkingSpot> findNearbyOrderByDistance(@Param("region") String region, @Param("latitude") double latitude, @Param("longitude") double longitude, @Param("distance") double distanceInMeters);
+
+    @Query(value = "SELECT * FROM parking_spots p WHERE p.region = :region AND p.available = true AND ST_DWithin(p.location_geog, ST_SetSRID(ST_MakePoint(:longitude, :latitude), 4326)::geography, :distance) ORDER BY p.location_geog <-> ST_SetSRID(ST_MakePoint(:longitude, :latitude), 4326)::geography", nativeQuery = true)
+    List<ParkingSpot> findAvailableNearbyOrderByDistance(@Param("region") String region, @Param("latitude") double latitude, @Param("longitude") double longitude, @Param("distance") double distanceInMeters);
+
+    interface SpotLocation {
+        Long getId();
+
+        String getRegion();
+
+        Double getLatitude();
+
+        Double getLongitude();
+
+        boolean isAvailable();
+    }
+}
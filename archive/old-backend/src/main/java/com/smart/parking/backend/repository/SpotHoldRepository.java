@@ -0,0 +1,23 @@
+package com.smart.parking.backend.repository;
+
+import com.smart.parking.backend.model.SpotHold;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface SpotHoldRepository extends JpaRepository<SpotHold, Long> {
+
+    List<SpotHold> findByExpiresAtAfter(Instant now);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM SpotHold h WHERE h.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -1,11 +1,13 @@
 package com.smart.parking.backend.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -23,6 +25,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final UserDetailsService userDetailsService;
+    private final TokenRevocationList revocationList;
+
+    // When true, the principal comes from verified token claims and no user is loaded from the database
+    @Value("${jwt.stateless-principal:true}")
+    private boolean statelessPrincipal;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -32,7 +39,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         // ✅ SKIP JWT AUTHENTICATION FOR PUBLIC ENDPOINTS
         // But allow /api/auth/me and /api/auth/profile which require authentication
-        boolean isPublicAuthEndpoint = path.equals("/api/auth/login") || path.equals("/api/auth/register");
+        boolean isPublicAuthEndpoint = path.equals("/api/auth/login") || path.equals("/api/auth/register")
+                || path.equals("/api/auth/refresh");
         boolean isProtectedAuthEndpoint = path.equals("/api/auth/me") || path.equals("/api/auth/profile");
         
         if (isPublicAuthEndpoint || path.contains("/public/") ||
@@ -45,34 +53,37 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         final String authorizationHeader = request.getHeader("Authorization");
 
-        String username = null;
-        String jwt = null;
-
-        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
+        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            String jwt = authorizationHeader.substring(7);
             try {
-                username = jwtUtil.extractUsername(jwt);
-            } catch (Exception e) {
-                log.error("Error extracting username from JWT: {}", e.getMessage());
-            }
-        }
+                // Single parse: signature and expiry are verified here
+                Claims claims = jwtUtil.extractAllClaims(jwt);
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            try {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
-
-                if (jwtUtil.validateToken(jwt, userDetails)) {
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails, null, userDetails.getAuthorities());
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
+                if (revocationList.isRevoked(claims)) {
+                    log.debug("Rejected revoked token for: {}", claims.getSubject());
+                } else if (statelessPrincipal && JwtPrincipal.canResolve(claims)) {
+                    JwtPrincipal principal = JwtPrincipal.fromClaims(claims);
+                    authenticate(request, new UsernamePasswordAuthenticationToken(
+                            principal, null, principal.getAuthorities()));
+                } else {
+                    UserDetails userDetails = this.userDetailsService.loadUserByUsername(claims.getSubject());
+                    if (userDetails.getUsername().equals(claims.getSubject())) {
+                        authenticate(request, new UsernamePasswordAuthenticationToken(
+                                userDetails, null, userDetails.getAuthorities()));
+                    }
                 }
             } catch (Exception e) {
-                log.error("Error loading user details: {}", e.getMessage());
+                log.error("Error authenticating JWT: {}", e.getMessage());
                 // Don't fail the request, just continue without authentication
             }
         }
 
         filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+
+    private void authenticate(HttpServletRequest request, UsernamePasswordAuthenticationToken authToken) {
+        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authToken);
+    }
+}
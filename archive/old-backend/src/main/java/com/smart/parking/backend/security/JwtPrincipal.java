@@ -0,0 +1,53 @@
+package com.smart.parking.backend.security;
+
+import io.jsonwebtoken.Claims;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.security.Principal;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Authenticated user rebuilt from verified token claims, so authenticated requests need no
+ * {@code UserRepository} lookup. {@link #getName()} is the email, like {@code User#getUsername()}.
+ */
+public record JwtPrincipal(Long userId, String email, String fullName, List<String> roles,
+                           String tokenId, Instant expiresAt) implements Principal {
+
+    static final String CLAIM_USER_ID = "uid";
+    static final String CLAIM_ROLES = "roles";
+    static final String CLAIM_FULL_NAME = "fullName";
+    // Refresh token family the access token was issued with, so logout can end that session
+    public static final String CLAIM_SESSION_ID = "sid";
+
+    /**
+     * Tokens issued before the id/roles claims existed cannot be resolved statelessly.
+     */
+    static boolean canResolve(Claims claims) {
+        return claims.get(CLAIM_USER_ID) != null && claims.getSubject() != null;
+    }
+
+    static JwtPrincipal fromClaims(Claims claims) {
+        Number userId = claims.get(CLAIM_USER_ID, Number.class);
+        List<?> rawRoles = claims.get(CLAIM_ROLES, List.class);
+        List<String> roles = rawRoles == null ? List.of() : rawRoles.stream().map(String::valueOf).toList();
+        return new JwtPrincipal(
+                userId.longValue(),
+                claims.getSubject(),
+                claims.get(CLAIM_FULL_NAME, String.class),
+                roles,
+                claims.getId(),
+                claims.getExpiration() != null ? claims.getExpiration().toInstant() : null);
+    }
+
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return roles.stream().map(SimpleGrantedAuthority::new).toList();
+    }
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
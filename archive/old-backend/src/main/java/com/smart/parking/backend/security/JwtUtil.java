@@ -5,45 +5,120 @@ import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
+/**
+ * Issues and verifies HS256 tokens.
+ * <p>
+ * Keys are derived once at startup and the parser is built once (it is immutable and thread-safe), so a
+ * request costs exactly one parse + HMAC check. Tokens are signed with {@code jwt.secret} and carry its
+ * {@code kid} ({@code jwt.kid}); {@code jwt.previous-keys} ({@code kid:secret,kid:secret}) are still
+ * accepted for verification. To rotate: move the current kid/secret into {@code jwt.previous-keys}, set a
+ * new {@code jwt.secret}/{@code jwt.kid}, and drop the old entry once its tokens have expired.
+ */
 @Component
 @Slf4j
 public class JwtUtil {
 
-    @Value("${jwt.secret}")
-    private String secret;
+    private final Long expiration;
+    private final String activeKid;
+    private final SecretKey signingKey;
+    private final Map<String, SecretKey> verificationKeys;
+    private final JwtParser parser;
 
-    @Value("${jwt.expiration}")
-    private Long expiration;
+    public JwtUtil(@Value("${jwt.secret}") String secret,
+                   @Value("${jwt.kid:k1}") String activeKid,
+                   @Value("${jwt.previous-keys:}") String previousKeys,
+                   @Value("${jwt.expiration}") Long expiration) {
+        this.expiration = expiration;
+        this.activeKid = activeKid;
+        this.signingKey = hmacKey(secret);
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+        Map<String, SecretKey> keys = new HashMap<>();
+        if (StringUtils.hasText(previousKeys)) {
+            for (String entry : previousKeys.split(",")) {
+                int separator = entry.indexOf(':');
+                if (separator <= 0) {
+                    throw new IllegalStateException("jwt.previous-keys entries must look like kid:secret");
+                }
+                keys.put(entry.substring(0, separator).trim(), hmacKey(entry.substring(separator + 1).trim()));
+            }
+        }
+        keys.put(activeKid, signingKey);
+        this.verificationKeys = Map.copyOf(keys);
+
+        this.parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        return resolveKey(header.getKeyId());
+                    }
+                })
+                .build();
+    }
+
+    private static SecretKey hmacKey(String secret) {
+        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Key resolveKey(String kid) {
+        // Tokens issued before kid headers existed were signed with the then-current secret
+        if (kid == null) {
+            return signingKey;
+        }
+        SecretKey key = verificationKeys.get(kid);
+        if (key == null) {
+            throw new UnsupportedJwtException("Unknown signing key id: " + kid);
+        }
+        return key;
     }
 
     public String generateToken(User user) {
+        return generateToken(user, null);
+    }
+
+    public String generateToken(User user, String sessionId) {
         Map<String, Object> claims = new HashMap<>();
-        claims.put("fullName", user.getFullName());
+        if (sessionId != null) {
+            claims.put(JwtPrincipal.CLAIM_SESSION_ID, sessionId);
+        }
+        claims.put(JwtPrincipal.CLAIM_FULL_NAME, user.getFullName());
+        // Enough to build the principal without a user lookup (see JwtAuthenticationFilter)
+        claims.put(JwtPrincipal.CLAIM_USER_ID, user.getId());
+        claims.put(JwtPrincipal.CLAIM_ROLES, user.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList());
         return createToken(claims, user.getEmail());
     }
 
     private String createToken(Map<String, Object> claims, String subject) {
         return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, activeKid)
                 .setClaims(claims)
+                .setId(UUID.randomUUID().toString())
                 .setSubject(subject)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration * 1000))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    public long getExpirationSeconds() {
+        return expiration;
+    }
+
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
@@ -57,13 +132,13 @@ public class JwtUtil {
         return claimsResolver.apply(claims);
     }
 
-    private Claims extractAllClaims(String token) {
+    /**
+     * Parses the token once, verifying signature and expiry; throws if either check fails.
+     * Callers that need several claims should call this once and read them from the result.
+     */
+    public Claims extractAllClaims(String token) {
         try {
-            return Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
+            return parser.parseClaimsJws(token).getBody();
         } catch (ExpiredJwtException e) {
             log.error("JWT token is expired: {}", e.getMessage());
             throw e;
@@ -87,7 +162,9 @@ public class JwtUtil {
     }
 
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        // Parsing already rejects expired tokens; one parse covers both checks
+        final Claims claims = extractAllClaims(token);
+        return claims.getSubject().equals(userDetails.getUsername())
+                && !claims.getExpiration().before(new Date());
     }
-}
\ No newline at end of file
+}
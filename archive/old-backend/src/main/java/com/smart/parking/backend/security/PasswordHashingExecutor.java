@@ -0,0 +1,115 @@
+package com.smart.parking.backend.security;
+
+import com.smart.parking.backend.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs BCrypt work (login, registration) on a small dedicated pool so a burst of logins cannot take the
+ * CPU and request threads away from the parking-spot endpoints.
+ * <p>
+ * The queue is bounded: when it is full, or a task has already waited longer than
+ * {@code security.password-hashing.max-queue-wait-ms}, the caller gets a fast 429 instead of a slow login.
+ * Publishes {@code auth.password_hashing.queue_wait}, {@code auth.password_hashing.duration},
+ * {@code auth.password_hashing.rejected} and queue/active gauges.
+ */
+@Component
+@Slf4j
+public class PasswordHashingExecutor {
+
+    private static final long RETRY_AFTER_SECONDS = 2;
+
+    private final ThreadPoolExecutor executor;
+    private final long maxQueueWaitNanos;
+    private final Timer queueWait;
+    private final Timer duration;
+    private final Counter rejected;
+
+    public PasswordHashingExecutor(@Value("${security.password-hashing.threads:2}") int threads,
+                                   @Value("${security.password-hashing.queue-capacity:64}") int queueCapacity,
+                                   @Value("${security.password-hashing.max-queue-wait-ms:2000}") long maxQueueWaitMs,
+                                   MeterRegistry meterRegistry) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread thread = new Thread(r, "password-hashing-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.maxQueueWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxQueueWaitMs);
+
+        this.queueWait = Timer.builder("auth.password_hashing.queue_wait")
+                .description("Time a login/registration waited for a hashing thread")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.duration = Timer.builder("auth.password_hashing.duration")
+                .description("Time spent authenticating or hashing on the hashing pool")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.rejected = Counter.builder("auth.password_hashing.rejected")
+                .description("Logins/registrations rejected with 429 because the hashing pool was saturated")
+                .register(meterRegistry);
+        Gauge.builder("auth.password_hashing.queue_size", executor, e -> e.getQueue().size())
+                .register(meterRegistry);
+        Gauge.builder("auth.password_hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+    }
+
+    /**
+     * @throws TooManyRequestsException immediately when the queue is full; the returned future fails with
+     * the same exception when the task waited too long to start
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        long submitted = System.nanoTime();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                long started = System.nanoTime();
+                long waited = started - submitted;
+                queueWait.record(waited, TimeUnit.NANOSECONDS);
+                if (waited > maxQueueWaitNanos) {
+                    rejected.increment();
+                    result.completeExceptionally(saturated());
+                    return;
+                }
+                try {
+                    result.complete(task.get());
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                } finally {
+                    duration.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            log.warn("Password hashing queue is full ({} queued); rejecting request", executor.getQueue().size());
+            throw saturated();
+        }
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static TooManyRequestsException saturated() {
+        return new TooManyRequestsException("Too many login attempts right now, please retry shortly", RETRY_AFTER_SECONDS);
+    }
+}
@@ -0,0 +1,144 @@
+package com.smart.parking.backend.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-client rate limiting for the endpoints one client can abuse to exhaust the small connection pool:
+ * availability reports, spot holds (claims and releases, which also fan out events), nearby searches and
+ * login, registration and refresh-token exchange. Each endpoint class has its own budget.
+ * Clients are keyed by authenticated user, otherwise by IP. Runs after {@link JwtAuthenticationFilter}
+ * so the user is known.
+ * <p>
+ * Every limited response carries {@code X-RateLimit-Limit}, {@code X-RateLimit-Remaining} and
+ * {@code X-RateLimit-Reset} (seconds until the budget is full); rejected ones get 429 with
+ * {@code Retry-After}.
+ */
+@Component
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    enum EndpointClass {
+        REPORT, HOLD, SEARCH, AUTH
+    }
+
+    private final Map<EndpointClass, TokenBucketRateLimiter> limiters = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, Counter> rejections = new EnumMap<>(EndpointClass.class);
+    private final boolean enabled;
+    private final boolean trustForwardedFor;
+
+    public RateLimitFilter(@Value("${rate-limit.enabled:true}") boolean enabled,
+                           @Value("${rate-limit.trust-forwarded-for:false}") boolean trustForwardedFor,
+                           @Value("${rate-limit.report.per-minute:30}") int reportsPerMinute,
+                           @Value("${rate-limit.hold.per-minute:10}") int holdsPerMinute,
+                           @Value("${rate-limit.search.per-minute:120}") int searchesPerMinute,
+                           @Value("${rate-limit.auth.per-minute:10}") int authPerMinute,
+                           MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.trustForwardedFor = trustForwardedFor;
+        limiters.put(EndpointClass.REPORT, new TokenBucketRateLimiter(reportsPerMinute, 1, TimeUnit.MINUTES));
+        limiters.put(EndpointClass.HOLD, new TokenBucketRateLimiter(holdsPerMinute, 1, TimeUnit.MINUTES));
+        limiters.put(EndpointClass.SEARCH, new TokenBucketRateLimiter(searchesPerMinute, 1, TimeUnit.MINUTES));
+        limiters.put(EndpointClass.AUTH, new TokenBucketRateLimiter(authPerMinute, 1, TimeUnit.MINUTES));
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            rejections.put(endpointClass, Counter.builder("http.rate_limit.rejected")
+                    .tag("class", endpointClass.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        EndpointClass endpointClass = enabled ? classify(request) : null;
+        if (endpointClass == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        TokenBucketRateLimiter.Decision decision = limiters.get(endpointClass).tryAcquire(clientKey(request));
+        response.setHeader("X-RateLimit-Limit", String.valueOf(decision.limit()));
+        response.setHeader("X-RateLimit-Remaining", String.valueOf(decision.remaining()));
+        response.setHeader("X-RateLimit-Reset", String.valueOf(toSeconds(decision.resetNanos())));
+
+        if (!decision.allowed()) {
+            rejections.get(endpointClass).increment();
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, toSeconds(decision.retryAfterNanos()))));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"error\":\"Rate limit exceeded\"}");
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    @Scheduled(fixedRateString = "${rate-limit.evict-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        limiters.values().forEach(TokenBucketRateLimiter::evictIdle);
+    }
+
+    static EndpointClass classify(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        String method = request.getMethod();
+        if ("POST".equals(method) && path.startsWith("/parking-spots/") && path.endsWith("/report")) {
+            return EndpointClass.REPORT;
+        }
+        if (("POST".equals(method) || "DELETE".equals(method)) && path.startsWith("/parking-spots/") && path.endsWith("/hold")) {
+            return EndpointClass.HOLD;
+        }
+        if ("GET".equals(method) && (path.equals("/parking-spots/nearby") || path.equals("/parking-spots/available/nearby"))) {
+            return EndpointClass.SEARCH;
+        }
+        if ("POST".equals(method) && (path.equals("/api/auth/login") || path.equals("/api/auth/register")
+                || path.equals("/api/auth/refresh"))) {
+            return EndpointClass.AUTH;
+        }
+        return null;
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "user:" + authentication.getName();
+        }
+        return "ip:" + clientIp(request);
+    }
+
+    private String clientIp(HttpServletRequest request) {
+        if (trustForwardedFor) {
+            String forwardedFor = request.getHeader("X-Forwarded-For");
+            if (StringUtils.hasText(forwardedFor)) {
+                // The last hop was appended by our own proxy; earlier entries are client-controlled
+                int comma = forwardedFor.lastIndexOf(',');
+                return forwardedFor.substring(comma + 1).trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    private static long toSeconds(long nanos) {
+        return (nanos + 999_999_999L) / 1_000_000_000L;
+    }
+}
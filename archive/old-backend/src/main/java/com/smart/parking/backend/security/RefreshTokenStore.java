@@ -0,0 +1,240 @@
+package com.smart.parking.backend.security;
+
+import com.smart.parking.backend.exception.UnauthorizedException;
+import com.smart.parking.backend.model.RefreshToken;
+import com.smart.parking.backend.repository.RefreshTokenRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rotating refresh tokens, held in memory so an exchange is a hash lookup plus one CAS; no password
+ * hashing and no database round trip on the request path. Changes are written behind to
+ * {@code refresh_tokens} every {@code jwt.refresh-flush-interval-ms} and reloaded at startup, so a restart
+ * loses at most one flush interval of rotations.
+ * <p>
+ * Each login starts a token family. Every exchange marks the presented token as used and issues the next
+ * one in the same family; presenting a used token again means it was copied, and the whole family is
+ * revoked. Only SHA-256 hashes of tokens are kept, indexed by family so revoking one touches only its own
+ * entries.
+ */
+@Component
+@Slf4j
+public class RefreshTokenStore {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository repository;
+    private final long refreshExpiration;
+    private final SecureRandom random = new SecureRandom();
+
+    // token hash -> session; values are immutable and swapped with replace() so rotation is atomic
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    // family id -> its token hashes; sets are only changed inside compute on this map, which also adds a
+    // rotated token to sessions, so a revocation never misses a token issued concurrently
+    private final Map<String, Set<String>> families = new ConcurrentHashMap<>();
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+    private final Set<String> removed = ConcurrentHashMap.newKeySet();
+
+    public RefreshTokenStore(RefreshTokenRepository repository,
+                             @Value("${jwt.refresh-expiration:2592000}") long refreshExpiration) {
+        this.repository = repository;
+        this.refreshExpiration = refreshExpiration;
+    }
+
+    @PostConstruct
+    public void load() {
+        for (RefreshToken row : repository.findByExpiresAtAfter(Instant.now())) {
+            sessions.put(row.getTokenHash(), new Session(row.getFamilyId(), row.getUserId(), row.getExpiresAt(),
+                    row.isUsed(), row.getPreviousHash()));
+            families.compute(row.getFamilyId(), (k, hashes) -> {
+                Set<String> next = hashes == null ? new HashSet<>() : hashes;
+                next.add(row.getTokenHash());
+                return next;
+            });
+        }
+        log.info("Loaded {} refresh token(s)", sessions.size());
+    }
+
+    /**
+     * Starts a new family, i.e. a new login session.
+     */
+    public Issued issue(Long userId) {
+        return issue(userId, UUID.randomUUID().toString(), null);
+    }
+
+    /**
+     * Exchanges a refresh token for the next one in its family.
+     *
+     * @throws UnauthorizedException if the token is unknown, expired, or was already used
+     */
+    public Issued rotate(String token) {
+        String hash = hash(token);
+        Session session = sessions.get(hash);
+        if (session == null || session.expiresAt().isBefore(Instant.now())) {
+            throw new UnauthorizedException("Invalid refresh token");
+        }
+        // A used token, or losing the race to a concurrent exchange of the same token, both mean reuse
+        if (session.used() || !sessions.replace(hash, session, session.markUsed())) {
+            revokeFamily(session.familyId());
+            log.warn("Refresh token reuse detected for user ID: {}, revoked session {}",
+                    session.userId(), session.familyId());
+            throw new UnauthorizedException("Invalid refresh token");
+        }
+        dirty.add(hash);
+        // Only the latest used token is kept for reuse detection, so a family holds at most two entries
+        if (session.previous() != null && sessions.remove(session.previous()) != null) {
+            forget(session.familyId(), session.previous());
+            removed.add(session.previous());
+        }
+        return issue(session.userId(), session.familyId(), hash);
+    }
+
+    public void revokeFamily(String familyId) {
+        Set<String> hashes = families.remove(familyId);
+        if (hashes == null) {
+            return;
+        }
+        for (String hash : hashes) {
+            sessions.remove(hash);
+            removed.add(hash);
+        }
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.refresh-flush-interval-ms:10000}")
+    public void flush() {
+        Instant now = Instant.now();
+        for (Map.Entry<String, Session> entry : sessions.entrySet()) {
+            Session session = entry.getValue();
+            if (session.expiresAt().isBefore(now) && sessions.remove(entry.getKey(), session)) {
+                forget(session.familyId(), entry.getKey());
+            }
+        }
+
+        List<String> toDelete = drain(removed);
+        if (!toDelete.isEmpty()) {
+            try {
+                repository.deleteAllByIdInBatch(toDelete);
+            } catch (RuntimeException e) {
+                removed.addAll(toDelete);
+                log.warn("Failed to delete {} revoked refresh token(s), will retry: {}", toDelete.size(), e.getMessage());
+            }
+        }
+
+        List<String> toSave = drain(dirty);
+        if (!toSave.isEmpty()) {
+            List<RefreshToken> rows = new ArrayList<>(toSave.size());
+            for (String hash : toSave) {
+                Session session = sessions.get(hash);
+                if (session != null) {
+                    rows.add(new RefreshToken(hash, session.familyId(), session.userId(), session.expiresAt(),
+                            session.used(), session.previous()));
+                }
+            }
+            try {
+                repository.saveAll(rows);
+            } catch (RuntimeException e) {
+                dirty.addAll(toSave);
+                log.warn("Failed to persist {} refresh token(s), will retry: {}", rows.size(), e.getMessage());
+            }
+        }
+
+        try {
+            repository.deleteExpired(now);
+        } catch (RuntimeException e) {
+            log.warn("Failed to delete expired refresh tokens: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private Issued issue(Long userId, String familyId, String previous) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        String hash = hash(token);
+        Session session = new Session(familyId, userId, Instant.now().plusSeconds(refreshExpiration), false, previous);
+        Set<String> family = families.compute(familyId, (k, hashes) -> {
+            if (hashes == null && previous != null) {
+                // Revoked while this rotation was in flight
+                return null;
+            }
+            Set<String> next = hashes == null ? new HashSet<>() : hashes;
+            next.add(hash);
+            sessions.put(hash, session);
+            return next;
+        });
+        if (family == null) {
+            throw new UnauthorizedException("Invalid refresh token");
+        }
+        dirty.add(hash);
+        return new Issued(token, familyId, userId);
+    }
+
+    private void forget(String familyId, String hash) {
+        families.computeIfPresent(familyId, (k, hashes) -> {
+            hashes.remove(hash);
+            return hashes.isEmpty() ? null : hashes;
+        });
+    }
+
+    private static List<String> drain(Set<String> keys) {
+        List<String> drained = new ArrayList<>();
+        Iterator<String> it = keys.iterator();
+        while (it.hasNext()) {
+            drained.add(it.next());
+            it.remove();
+        }
+        return drained;
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * @param token    the raw refresh token; only returned to the client, never stored
+     * @param familyId the login session this token belongs to
+     */
+    public record Issued(String token, String familyId, Long userId) {
+    }
+
+    // previous: hash of the used token this one replaced
+    private record Session(String familyId, Long userId, Instant expiresAt, boolean used, String previous) {
+
+        Session markUsed() {
+            return new Session(familyId, userId, expiresAt, true, previous);
+        }
+    }
+}
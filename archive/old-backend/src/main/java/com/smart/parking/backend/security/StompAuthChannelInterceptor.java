@@ -0,0 +1,168 @@
+package com.smart.parking.backend.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Authenticates the STOMP CONNECT frame with the same bearer token as the REST API
+ * ({@code Authorization: Bearer ...} native header) and attaches the principal to the session; Spring
+ * then stamps it on every later frame of that session, so nothing is verified again.
+ * <p>
+ * The HTTP handshake under {@code /ws/} stays open because SockJS transports cannot send headers. Verified
+ * tokens are cached (bounded, until they expire) so a reconnect storm after a deploy costs one map lookup
+ * per client that reconnects with the token it already used. Each user may hold at most
+ * {@code websocket.max-connections-per-user} sessions; anonymous sessions are allowed unless
+ * {@code websocket.require-auth} is set.
+ */
+@Component
+@Slf4j
+public class StompAuthChannelInterceptor implements ChannelInterceptor {
+
+    private final JwtUtil jwtUtil;
+    private final UserDetailsService userDetailsService;
+    private final TokenRevocationList revocationList;
+    private final boolean requireAuth;
+    private final int maxConnectionsPerUser;
+    private final int tokenCacheSize;
+
+    private final Map<String, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
+    // User -> open sessions; only changed inside compute so a count is never dropped while in use
+    private final Map<String, Integer> connectionsPerUser = new ConcurrentHashMap<>();
+    // STOMP session id -> user, so disconnects release the slot exactly once
+    private final Map<String, String> sessionUsers = new ConcurrentHashMap<>();
+
+    public StompAuthChannelInterceptor(JwtUtil jwtUtil,
+                                       UserDetailsService userDetailsService,
+                                       TokenRevocationList revocationList,
+                                       @Value("${websocket.require-auth:false}") boolean requireAuth,
+                                       @Value("${websocket.max-connections-per-user:5}") int maxConnectionsPerUser,
+                                       @Value("${websocket.token-cache-size:10000}") int tokenCacheSize) {
+        this.jwtUtil = jwtUtil;
+        this.userDetailsService = userDetailsService;
+        this.revocationList = revocationList;
+        this.requireAuth = requireAuth;
+        this.maxConnectionsPerUser = maxConnectionsPerUser;
+        this.tokenCacheSize = tokenCacheSize;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() != StompCommand.CONNECT) {
+            return message;
+        }
+
+        String authorization = accessor.getFirstNativeHeader("Authorization");
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            if (requireAuth) {
+                throw new MessageDeliveryException("Authentication required");
+            }
+            return message;
+        }
+
+        UsernamePasswordAuthenticationToken user = authenticate(authorization.substring(7));
+        String sessionId = accessor.getSessionId();
+        // A session counts once: a repeated CONNECT would take a second slot that DISCONNECT never gives back
+        if (sessionId != null && sessionUsers.putIfAbsent(sessionId, user.getName()) != null) {
+            throw new MessageDeliveryException("Session already connected");
+        }
+        if (!admit(user.getName())) {
+            if (sessionId != null) {
+                sessionUsers.remove(sessionId);
+            }
+            log.warn("Rejected STOMP connection for {}: limit of {} sessions reached", user.getName(), maxConnectionsPerUser);
+            throw new MessageDeliveryException("Too many connections");
+        }
+        accessor.setUser(user);
+        return message;
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        String name = sessionUsers.remove(event.getSessionId());
+        if (name == null) {
+            return;
+        }
+        connectionsPerUser.computeIfPresent(name, (k, count) -> count > 1 ? count - 1 : null);
+    }
+
+    // Takes one of the user's session slots if any is left
+    private boolean admit(String name) {
+        boolean[] admitted = {false};
+        connectionsPerUser.compute(name, (k, count) -> {
+            int current = count == null ? 0 : count;
+            if (current >= maxConnectionsPerUser) {
+                return count;
+            }
+            admitted[0] = true;
+            return current + 1;
+        });
+        return admitted[0];
+    }
+
+    private UsernamePasswordAuthenticationToken authenticate(String token) {
+        VerifiedToken cached = verifiedTokens.get(token);
+        if (cached != null && cached.expiresAt().isAfter(Instant.now())) {
+            if (revocationList.isRevoked(cached.tokenId())) {
+                verifiedTokens.remove(token);
+                throw new MessageDeliveryException("Invalid token");
+            }
+            return cached.user();
+        }
+
+        Claims claims;
+        try {
+            claims = jwtUtil.extractAllClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new MessageDeliveryException("Invalid token");
+        }
+        if (revocationList.isRevoked(claims)) {
+            throw new MessageDeliveryException("Invalid token");
+        }
+
+        UsernamePasswordAuthenticationToken user;
+        if (JwtPrincipal.canResolve(claims)) {
+            JwtPrincipal principal = JwtPrincipal.fromClaims(claims);
+            user = new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+        } else {
+            UserDetails userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
+            user = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+        }
+        cache(token, new VerifiedToken(user, claims.getId(), claims.getExpiration().toInstant()));
+        return user;
+    }
+
+    private void cache(String token, VerifiedToken verified) {
+        if (verifiedTokens.size() >= tokenCacheSize) {
+            Instant now = Instant.now();
+            verifiedTokens.values().removeIf(v -> !v.expiresAt().isAfter(now));
+            if (verifiedTokens.size() >= tokenCacheSize) {
+                // Still full of live tokens: skip caching rather than grow without bound
+                return;
+            }
+        }
+        verifiedTokens.put(token, verified);
+    }
+
+    private record VerifiedToken(UsernamePasswordAuthenticationToken user, String tokenId, Instant expiresAt) {
+    }
+}
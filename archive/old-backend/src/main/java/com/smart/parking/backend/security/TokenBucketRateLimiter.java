@@ -0,0 +1,104 @@
+package com.smart.parking.backend.security;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-key token bucket implemented as GCRA (generic cell rate algorithm): each key holds a single
+ * {@link AtomicLong} "theoretical arrival time", updated with one CAS per request, so there are no locks
+ * on the hot path. Behaves exactly like a bucket of {@code capacity} tokens refilled at
+ * {@code capacity / period}.
+ * <p>
+ * Keys whose bucket has fully refilled carry no state worth keeping, so {@link #evictIdle()} drops them
+ * lazily; a missing key is the same as a full bucket. Eviction first marks the bucket {@code EVICTED} with
+ * a CAS that fails if a request updated it meanwhile, so a request racing with eviction either keeps the
+ * bucket alive or sees the mark and starts over with the key's new bucket; it never spends a token on a
+ * bucket that is being thrown away.
+ */
+public class TokenBucketRateLimiter {
+
+    private static final long NEW = Long.MIN_VALUE;
+    private static final long EVICTED = Long.MAX_VALUE;
+
+    private final int capacity;
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final LongSupplier clock;
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    public TokenBucketRateLimiter(int capacity, long period, TimeUnit unit) {
+        this(capacity, period, unit, System::nanoTime);
+    }
+
+    TokenBucketRateLimiter(int capacity, long period, TimeUnit unit, LongSupplier clock) {
+        if (capacity < 1 || period < 1) {
+            throw new IllegalArgumentException("capacity and period must be positive");
+        }
+        this.capacity = capacity;
+        this.emissionIntervalNanos = Math.max(1, unit.toNanos(period) / capacity);
+        this.burstToleranceNanos = emissionIntervalNanos * capacity;
+        this.clock = clock;
+    }
+
+    public Decision tryAcquire(String key) {
+        while (true) {
+            AtomicLong tat = buckets.computeIfAbsent(key, k -> new AtomicLong(NEW));
+            Decision decision = tryAcquire(tat);
+            if (decision != null) {
+                return decision;
+            }
+            // Evicted after we fetched it: make sure it is gone, then use the key's next bucket
+            buckets.remove(key, tat);
+        }
+    }
+
+    // null if the bucket was evicted
+    private Decision tryAcquire(AtomicLong tat) {
+        while (true) {
+            long now = clock.getAsLong();
+            long current = tat.get();
+            if (current == EVICTED) {
+                return null;
+            }
+            long base = current == NEW || current - now < 0 ? now : current;
+            long next = base + emissionIntervalNanos;
+            long debt = next - now;
+            if (debt > burstToleranceNanos) {
+                long retryAfter = debt - burstToleranceNanos;
+                return new Decision(false, capacity, 0, retryAfter, base - now);
+            }
+            if (tat.compareAndSet(current, next)) {
+                int remaining = (int) ((burstToleranceNanos - debt) / emissionIntervalNanos);
+                return new Decision(true, capacity, remaining, 0, debt);
+            }
+        }
+    }
+
+    /**
+     * Drops buckets that have refilled completely; their absence is indistinguishable from their presence.
+     */
+    public void evictIdle() {
+        long now = clock.getAsLong();
+        for (Map.Entry<String, AtomicLong> entry : buckets.entrySet()) {
+            AtomicLong tat = entry.getValue();
+            long current = tat.get();
+            if (current != NEW && current != EVICTED && current - now <= 0 && tat.compareAndSet(current, EVICTED)) {
+                buckets.remove(entry.getKey(), tat);
+            }
+        }
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    /**
+     * @param retryAfterNanos wait before the next request can succeed (0 when allowed)
+     * @param resetNanos      time until the bucket is full again
+     */
+    public record Decision(boolean allowed, int limit, int remaining, long retryAfterNanos, long resetNanos) {
+    }
+}
@@ -0,0 +1,44 @@
+package com.smart.parking.backend.security;
+
+import io.jsonwebtoken.Claims;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory revocation of single stateless tokens by {@code jti} (logout).
+ * <p>
+ * Entries only live as long as the tokens they revoke, so the structure stays small. It is per node and
+ * not persisted; a restart forgets revocations, which is bounded by the token lifetime.
+ */
+@Component
+public class TokenRevocationList {
+
+    // jti -> token expiry (epoch millis); dropped once the token would have expired anyway
+    private final Map<String, Long> revokedTokenIds = new ConcurrentHashMap<>();
+
+    public void revoke(String tokenId, Date expiresAt) {
+        if (tokenId == null) {
+            return;
+        }
+        long expiry = expiresAt != null ? expiresAt.getTime() : Long.MAX_VALUE;
+        revokedTokenIds.put(tokenId, expiry);
+    }
+
+    public boolean isRevoked(Claims claims) {
+        return isRevoked(claims.getId());
+    }
+
+    public boolean isRevoked(String tokenId) {
+        return tokenId != null && revokedTokenIds.containsKey(tokenId);
+    }
+
+    @Scheduled(fixedRateString = "${jwt.revocation-purge-interval-ms:600000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        revokedTokenIds.values().removeIf(expiry -> expiry < now);
+    }
+}
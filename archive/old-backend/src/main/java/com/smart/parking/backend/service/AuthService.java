@@ -6,16 +6,25 @@ import com.smart.parking.backend.dto.AuthResponse;
 import com.smart.parking.backend.dto.LoginRequest;
 import com.smart.parking.backend.dto.RegisterRequest;
 import com.smart.parking.backend.exception.BadRequestException;
+import com.smart.parking.backend.exception.UnauthorizedException;
 import com.smart.parking.backend.model.User;
 import com.smart.parking.backend.repository.UserRepository;
+import com.smart.parking.backend.security.JwtPrincipal;
 import com.smart.parking.backend.security.JwtUtil;
+import com.smart.parking.backend.security.PasswordHashingExecutor;
+import com.smart.parking.backend.security.RefreshTokenStore;
+import com.smart.parking.backend.security.TokenRevocationList;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Service
 @RequiredArgsConstructor
@@ -26,8 +35,15 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final JwtUtil jwtUtil;
+    private final TokenRevocationList revocationList;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final RefreshTokenStore refreshTokenStore;
 
-    @Transactional
+    /**
+     * Not transactional: the lookup and the insert each hold a connection only for their own statement, so
+     * none is held while the password is queued for and run through BCrypt. A concurrent registration of
+     * the same email is caught by the unique constraint on {@code users.email}.
+     */
     public AuthResponse register(RegisterRequest request) {
         log.info("Attempting to register user with email: {}", request.getEmail());
 
@@ -41,21 +57,28 @@ public class AuthService {
         User user = new User();
         user.setFullName(request.getFullName());
         user.setEmail(request.getEmail().toLowerCase().trim());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
+        // Hash on the bounded hashing pool; this request thread only waits for the result
+        user.setPassword(await(passwordHashingExecutor.submit(() -> passwordEncoder.encode(request.getPassword()))));
 
-        User savedUser = userRepository.save(user);
+        User savedUser;
+        try {
+            savedUser = userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Registration failed - email already exists: {}", request.getEmail());
+            throw new BadRequestException("Email is already taken");
+        }
         log.info("Successfully registered user with email: {}", savedUser.getEmail());
 
-        // Generate JWT token
-        String token = jwtUtil.generateToken(savedUser);
-
-        return new AuthResponse(token, savedUser.getEmail(), savedUser.getFullName());
+        return issueTokens(savedUser, refreshTokenStore.issue(savedUser.getId()));
     }
 
-    public AuthResponse login(LoginRequest request) {
+    /**
+     * Runs the BCrypt check on the password hashing pool. Fails fast with 429 when the pool is saturated.
+     */
+    public CompletableFuture<AuthResponse> login(LoginRequest request) {
         log.info("Attempting to login user with email: {}", request.getEmail());
 
-        try {
+        return passwordHashingExecutor.submit(() -> {
             Authentication authentication = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(
                             request.getEmail().toLowerCase().trim(),
@@ -63,16 +86,62 @@ public class AuthService {
                     )
             );
 
-            SecurityContextHolder.getContext().setAuthentication(authentication);
-
+            // No SecurityContextHolder here: this runs on a pooled thread and the API is stateless
             User user = (User) authentication.getPrincipal();
-            String token = jwtUtil.generateToken(user);
 
             log.info("Successfully logged in user with email: {}", user.getEmail());
-            return new AuthResponse(token, user.getEmail(), user.getFullName());
+            return issueTokens(user, refreshTokenStore.issue(user.getId()));
+        }).whenComplete((response, e) -> {
+            if (e != null) {
+                log.error("Login failed for email: {}", request.getEmail(), e);
+            }
+        });
+    }
 
-        } catch (Exception e) {
-            log.error("Login failed for email: {}", request.getEmail(), e);
+    /**
+     * Exchanges a refresh token for a new access/refresh pair. No password check: this is the cheap path
+     * clients should use instead of logging in again when the short-lived access token expires.
+     */
+    public AuthResponse refresh(String refreshToken) {
+        RefreshTokenStore.Issued next = refreshTokenStore.rotate(refreshToken);
+        User user = userRepository.findById(next.userId()).orElseThrow(() -> {
+            refreshTokenStore.revokeFamily(next.familyId());
+            return new UnauthorizedException("Invalid refresh token");
+        });
+        return issueTokens(user, next);
+    }
+
+    /**
+     * Revokes the given access token until it expires, and the refresh tokens of its session.
+     * Other sessions of the same user stay valid.
+     */
+    public void logout(String token) {
+        try {
+            Claims claims = jwtUtil.extractAllClaims(token);
+            revocationList.revoke(claims.getId(), claims.getExpiration());
+            String sessionId = claims.get(JwtPrincipal.CLAIM_SESSION_ID, String.class);
+            if (sessionId != null) {
+                refreshTokenStore.revokeFamily(sessionId);
+            }
+            log.info("Logged out user with email: {}", claims.getSubject());
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new BadRequestException("Invalid token");
+        }
+    }
+
+    private AuthResponse issueTokens(User user, RefreshTokenStore.Issued refresh) {
+        String token = jwtUtil.generateToken(user, refresh.familyId());
+        return new AuthResponse(token, refresh.token(), jwtUtil.getExpirationSeconds(),
+                user.getEmail(), user.getFullName());
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
             throw e;
         }
     }
@@ -0,0 +1,340 @@
+package com.smart.parking.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smart.parking.backend.dto.ParkingSpotUpdateMessage;
+import com.smart.parking.backend.dto.SpotAreaFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Server-Sent Events fan-out of spot updates for clients that cannot speak STOMP/SockJS
+ * (kiosks, partner integrations). Fed by {@code ParkingSpotEventListener} with the same messages
+ * that go to the region's {@code /topic/parking-updates} topic.
+ * <p>
+ * Each region is a separate channel with its own subscribers, event ids and replay buffer, so an update
+ * is only matched against subscribers of its region. Every event gets an id increasing within its region
+ * and is kept in the region's bounded replay buffer, so a client reconnecting with {@code Last-Event-ID}
+ * receives what it missed. If the gap is older than the buffer,
+ * the client gets a {@code reset} event and should re-fetch {@code GET /parking-spots}. Idle connections
+ * receive a comment heartbeat so proxies do not close them.
+ * <p>
+ * Ids, replay buffers and filtering are handled on one fan-out thread that never writes to a socket. Each
+ * subscriber has its own bounded queue ({@code sse.subscriber-queue-size}) drained by a writer thread of its
+ * own while there is something to send, so a slow or half-open client only delays itself: it is
+ * disconnected when its queue overflows or when one write has been blocked longer than
+ * {@code sse.send-timeout-ms}.
+ */
+@Service
+@Slf4j
+public class AvailabilityStreamService {
+
+    static final String UPDATE_EVENT = "update";
+    static final String RESET_EVENT = "reset";
+
+    private static final String DROPPED = "parking.sse.dropped";
+
+    private final ObjectMapper objectMapper;
+    private final long timeoutMs;
+    private final int replayBufferSize;
+    private final int queueSize;
+    private final long sendTimeoutNanos;
+    private final Timer fanOutTimer;
+    private final Counter droppedLagging;
+    private final Counter droppedStalled;
+
+    private final Map<String, Channel> channels = new ConcurrentHashMap<>();
+    // Sequencing only: assigns ids, keeps the replay buffers and fills subscriber queues, never blocks on I/O
+    private final ExecutorService fanOut = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "sse-fanout");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Socket writes. Platform threads, not virtual ones: SseEmitter writes inside synchronized methods, which
+    // would pin a virtual thread's carrier for as long as a client does not read. Idle writers exit after 60 s.
+    private final ExecutorService writers = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "sse-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public AvailabilityStreamService(ObjectMapper objectMapper,
+                                     @Value("${sse.timeout-ms:1800000}") long timeoutMs,
+                                     @Value("${sse.replay-buffer-size:1024}") int replayBufferSize,
+                                     @Value("${sse.subscriber-queue-size:256}") int queueSize,
+                                     @Value("${sse.send-timeout-ms:10000}") long sendTimeoutMs,
+                                     MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.timeoutMs = timeoutMs;
+        this.replayBufferSize = replayBufferSize;
+        this.queueSize = queueSize;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        this.fanOutTimer = Timer.builder("parking.broadcast.duration")
+                .tag("channel", "sse")
+                .register(meterRegistry);
+        this.droppedLagging = Counter.builder(DROPPED).tag("reason", "queue_full").register(meterRegistry);
+        this.droppedStalled = Counter.builder(DROPPED).tag("reason", "send_timeout").register(meterRegistry);
+        meterRegistry.gauge("parking.sse.subscribers", this, AvailabilityStreamService::getSubscriberCount);
+    }
+
+    public SseEmitter subscribe(String region, SpotAreaFilter filter, Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Channel channel = channel(region);
+        List<Subscriber> subscribers = channel.subscribers();
+        Subscriber subscriber = new Subscriber(emitter, filter, channel, new ArrayBlockingQueue<>(queueSize));
+
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+
+        // Replay and registration happen on the fan-out thread so no live update can slip in between
+        fanOut.execute(() -> {
+            if (lastEventId != null && !replay(subscriber, lastEventId)) {
+                return;
+            }
+            subscribers.add(subscriber);
+        });
+        log.debug("SSE subscriber registered (region={}, lastEventId={})", region, lastEventId);
+        return emitter;
+    }
+
+    public void publish(String region, ParkingSpotUpdateMessage message) {
+        final String payload;
+        try {
+            payload = objectMapper.writeValueAsString(message);
+        } catch (JsonProcessingException e) {
+            log.error("Failed to serialize SSE update for spot ID: {}", message.getParkingSpot().getId(), e);
+            return;
+        }
+
+        Channel channel = channel(region);
+        fanOut.execute(() -> fanOutTimer.record(() -> {
+            StreamedUpdate update = new StreamedUpdate(channel.sequence().incrementAndGet(), message, payload);
+            Deque<StreamedUpdate> replayBuffer = channel.replayBuffer();
+            replayBuffer.addLast(update);
+            if (replayBuffer.size() > replayBufferSize) {
+                replayBuffer.removeFirst();
+            }
+            for (Subscriber subscriber : channel.subscribers()) {
+                if (subscriber.filter().matches(message.getParkingSpot())) {
+                    enqueue(subscriber, updateEvent(update));
+                }
+            }
+        }));
+    }
+
+    /**
+     * Also disconnects subscribers whose current write has been blocked for longer than the send timeout.
+     */
+    @Scheduled(fixedRateString = "${sse.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        if (getSubscriberCount() == 0) {
+            return;
+        }
+        fanOut.execute(() -> {
+            long now = System.nanoTime();
+            for (Channel channel : channels.values()) {
+                for (Subscriber subscriber : channel.subscribers()) {
+                    long since = subscriber.sendingSince;
+                    if (since != 0 && now - since > sendTimeoutNanos) {
+                        droppedStalled.increment();
+                        drop(subscriber, new IOException("Write blocked for more than "
+                                + TimeUnit.NANOSECONDS.toMillis(sendTimeoutNanos) + " ms"));
+                    } else {
+                        enqueue(subscriber, SseEmitter.event().comment("heartbeat"));
+                    }
+                }
+            }
+        });
+    }
+
+    public int getSubscriberCount() {
+        return channels.values().stream().mapToInt(channel -> channel.subscribers().size()).sum();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fanOut.shutdownNow();
+        writers.shutdownNow();
+        for (Channel channel : channels.values()) {
+            channel.subscribers().forEach(s -> s.emitter().complete());
+            channel.subscribers().clear();
+        }
+    }
+
+    private Channel channel(String region) {
+        return channels.computeIfAbsent(region, k -> new Channel());
+    }
+
+    /**
+     * Queues what the subscriber missed, or a reset when that is more than the buffer or its queue holds.
+     *
+     * @return false if the subscriber was dropped while replaying
+     */
+    private boolean replay(Subscriber subscriber, long lastEventId) {
+        Deque<StreamedUpdate> replayBuffer = subscriber.channel().replayBuffer();
+        AtomicLong sequence = subscriber.channel().sequence();
+        StreamedUpdate oldest = replayBuffer.peekFirst();
+        // Gap older than the buffer, or an id from before a restart (sequence starts over)
+        boolean gap = (oldest != null && lastEventId < oldest.id() - 1) || lastEventId > sequence.get();
+        List<StreamedUpdate> missed = new ArrayList<>();
+        if (!gap) {
+            for (StreamedUpdate update : replayBuffer) {
+                if (update.id() > lastEventId && subscriber.filter().matches(update.message().getParkingSpot())) {
+                    missed.add(update);
+                }
+            }
+        }
+        if (gap || missed.size() > queueSize) {
+            return enqueue(subscriber, SseEmitter.event()
+                    .id(String.valueOf(sequence.get()))
+                    .name(RESET_EVENT)
+                    .data("{}", MediaType.APPLICATION_JSON));
+        }
+        for (StreamedUpdate update : missed) {
+            if (!enqueue(subscriber, updateEvent(update))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static SseEmitter.SseEventBuilder updateEvent(StreamedUpdate update) {
+        return SseEmitter.event()
+                .id(String.valueOf(update.id()))
+                .name(UPDATE_EVENT)
+                .data(update.payload(), MediaType.APPLICATION_JSON);
+    }
+
+    /**
+     * Hands an event to the subscriber's writer; a subscriber whose queue is full has fallen behind and is
+     * disconnected (it can reconnect with {@code Last-Event-ID}).
+     *
+     * @return false if the subscriber was dropped
+     */
+    private boolean enqueue(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        if (!subscriber.queue().offer(event)) {
+            droppedLagging.increment();
+            drop(subscriber, new IOException("Subscriber fell " + queueSize + " events behind"));
+            return false;
+        }
+        if (subscriber.draining().compareAndSet(false, true)) {
+            writers.execute(() -> drain(subscriber));
+        }
+        return true;
+    }
+
+    // At most one drain per subscriber runs at a time, so events go out in queue order
+    private void drain(Subscriber subscriber) {
+        do {
+            SseEmitter.SseEventBuilder event;
+            while ((event = subscriber.queue().poll()) != null) {
+                subscriber.sendingSince = System.nanoTime();
+                try {
+                    subscriber.emitter().send(event);
+                } catch (IOException | IllegalStateException e) {
+                    drop(subscriber, e);
+                    return;
+                } finally {
+                    subscriber.sendingSince = 0;
+                }
+            }
+            subscriber.draining().set(false);
+        } while (!subscriber.queue().isEmpty() && subscriber.draining().compareAndSet(false, true));
+    }
+
+    private void drop(Subscriber subscriber, Exception cause) {
+        if (subscriber.channel().subscribers().remove(subscriber)) {
+            log.debug("Dropped SSE subscriber: {}", cause.getMessage());
+        }
+        subscriber.queue().clear();
+        // Completing waits for the emitter's write lock, which a blocked write holds
+        writers.execute(() -> subscriber.emitter().completeWithError(cause));
+    }
+
+    // A class, not a record: it carries the in-flight write time read by the stall check
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final SpotAreaFilter filter;
+        private final Channel channel;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        // System.nanoTime() when the current write started, 0 when none is in progress
+        private volatile long sendingSince;
+
+        Subscriber(SseEmitter emitter, SpotAreaFilter filter, Channel channel,
+                   BlockingQueue<SseEmitter.SseEventBuilder> queue) {
+            this.emitter = emitter;
+            this.filter = filter;
+            this.channel = channel;
+            this.queue = queue;
+        }
+
+        SseEmitter emitter() {
+            return emitter;
+        }
+
+        SpotAreaFilter filter() {
+            return filter;
+        }
+
+        Channel channel() {
+            return channel;
+        }
+
+        BlockingQueue<SseEmitter.SseEventBuilder> queue() {
+            return queue;
+        }
+
+        AtomicBoolean draining() {
+            return draining;
+        }
+    }
+
+    // One region's stream. Replay buffer and sequence are only touched on the fan-out thread. A class, not a
+    // record: subscribers refer back to their channel, and identity equality keeps list removal cheap.
+    private static final class Channel {
+        private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+        private final Deque<StreamedUpdate> replayBuffer = new ArrayDeque<>();
+        private final AtomicLong sequence = new AtomicLong();
+
+        List<Subscriber> subscribers() {
+            return subscribers;
+        }
+
+        Deque<StreamedUpdate> replayBuffer() {
+            return replayBuffer;
+        }
+
+        AtomicLong sequence() {
+            return sequence;
+        }
+    }
+
+    private record StreamedUpdate(long id, ParkingSpotUpdateMessage message, String payload) {
+    }
+}
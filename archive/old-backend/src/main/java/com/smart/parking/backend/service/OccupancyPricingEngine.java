@@ -0,0 +1,335 @@
+package com.smart.parking.backend.service;
+
+import com.smart.parking.backend.cache.SpotDataVersion;
+import com.smart.parking.backend.dto.ParkingSpotDTO;
+import com.smart.parking.backend.event.ParkingSpotUpdateEvent;
+import com.smart.parking.backend.repository.ParkingSpotRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * Occupancy-based prices. Each region is divided into square cells of {@code pricing.cell-size-meters};
+ * every cell counts its spots and how many are occupied (not available, or held), and maps that occupancy
+ * to a price multiplier through {@code pricing.tiers}. A spot's effective price is its price times its
+ * cell's multiplier. A cell spans {@code pricing.cell-size-meters} of latitude and, scaled by the cosine of
+ * the region's reference latitude (its first spot's), the same distance of longitude; a city is small
+ * enough for one scale to hold across it.
+ * <p>
+ * Counts are kept current from {@link ParkingSpotUpdateEvent}s, one cell at a time, and a cell's
+ * multiplier is only re-evaluated when that cell changes, so reads just look it up. When a multiplier
+ * moves, the region's and the cell's spots' {@link SpotDataVersion} is bumped so snapshots and ETags pick
+ * up the new prices. {@link #refresh()} recounts everything from the per-spot state (a few milliseconds
+ * per city) and runs every {@code pricing.refresh-interval-ms} as a safety net.
+ * <p>
+ * Like the in-memory spatial index, only the regions this node owns are tracked.
+ */
+@Component
+@Slf4j
+public class OccupancyPricingEngine {
+
+    // Length of one degree of latitude on the mean-radius sphere used by GeometryUtil
+    private static final double METERS_PER_DEGREE = 111_195.08;
+    // Keeps longitude cells finite for regions at the poles
+    private static final double MIN_LONGITUDE_SCALE = 0.01;
+
+    private final ParkingSpotRepository repository;
+    private final RegionRouter regionRouter;
+    private final SpotHoldTable holdTable;
+    private final SpotDataVersion dataVersion;
+    private final double cellDegrees;
+    private final int minSpotsPerCell;
+    // Ascending occupancy thresholds and the multiplier from each one up
+    private final double[] thresholds;
+    private final double[] multipliers;
+    private final Timer refreshTimer;
+
+    private final Map<String, Area> areas = new ConcurrentHashMap<>();
+
+    public OccupancyPricingEngine(ParkingSpotRepository repository, RegionRouter regionRouter,
+                                  SpotHoldTable holdTable, SpotDataVersion dataVersion, MeterRegistry meterRegistry,
+                                  @Value("${pricing.cell-size-meters:500}") double cellSizeMeters,
+                                  @Value("${pricing.min-spots-per-cell:5}") int minSpotsPerCell,
+                                  @Value("${pricing.tiers:0.7:1.25,0.85:1.5,0.95:2.0}") String tiers) {
+        this.repository = repository;
+        this.regionRouter = regionRouter;
+        this.holdTable = holdTable;
+        this.dataVersion = dataVersion;
+        this.cellDegrees = cellSizeMeters / METERS_PER_DEGREE;
+        this.minSpotsPerCell = minSpotsPerCell;
+        double[][] parsed = parseTiers(tiers);
+        this.thresholds = parsed[0];
+        this.multipliers = parsed[1];
+        this.refreshTimer = Timer.builder("parking.pricing.refresh")
+                .description("Full recount of occupancy and multipliers for all tracked regions")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public synchronized void load() {
+        long start = System.nanoTime();
+        areas.clear();
+        List<ParkingSpotRepository.SpotLocation> locations = regionRouter.ownsAll()
+                ? repository.findAllLocations()
+                : repository.findAllLocationsByRegionIn(regionRouter.ownedRegions());
+        for (ParkingSpotRepository.SpotLocation location : locations) {
+            Area area = areas.computeIfAbsent(location.getRegion(), k -> newArea(location.getLatitude()));
+            place(area, location.getId(), location.getLatitude(), location.getLongitude(), location.isAvailable());
+        }
+        areas.forEach(this::recount);
+        log.info("Priced {} spot(s) in {} region(s), {} cell(s) in {} ms", areas.values().stream()
+                        .mapToInt(area -> area.spots.size()).sum(), areas.size(),
+                areas.values().stream().mapToInt(area -> area.cells.size()).sum(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Price times the occupancy multiplier of the spot's cell; the plain price for spots not tracked here.
+     * Spots of regions this node does not own never get here: reads and writes of them are routed to
+     * their owner ({@link RegionRouter#requireOwned}) before pricing.
+     */
+    public Double effectivePrice(ParkingSpotDTO spot) {
+        if (spot.getPrice() == null) {
+            return null;
+        }
+        return Math.round(spot.getPrice() * multiplier(spot.getRegion(), spot.getId()) * 100) / 100.0;
+    }
+
+    public double multiplier(String region, Long spotId) {
+        Area area = areas.get(region);
+        Spot spot = area == null ? null : area.spots.get(spotId);
+        Cell cell = spot == null ? null : area.cells.get(spot.cell());
+        return cell == null ? 1.0 : cell.multiplier;
+    }
+
+    /**
+     * Runs after the data version and spot caches have seen the event and before the broadcasts, which
+     * then carry the new effective price.
+     */
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    public void onParkingSpotUpdate(ParkingSpotUpdateEvent event) {
+        Long id = event.getSpotId();
+        String region = event.getRegion();
+        if (!regionRouter.owns(region)) {
+            return;
+        }
+        switch (event.getUpdateType()) {
+            case "DELETE" -> remove(region, id);
+            case "AVAILABILITY_UPDATE" -> update(region, id, spot -> spot.withAvailable(event.isAvailable()));
+            case SpotHoldTable.HOLD -> update(region, id, spot -> spot.withHeld(true));
+            case SpotHoldTable.HOLD_RELEASE, SpotHoldTable.HOLD_EXPIRED -> update(region, id, spot -> spot.withHeld(false));
+            default -> repository.findById(id).ifPresentOrElse(
+                    spot -> put(spot.getId(), spot.getRegion(), spot.getLatitude(), spot.getLongitude(),
+                            spot.isAvailable()),
+                    () -> remove(region, id));
+        }
+    }
+
+    /**
+     * Recounts every cell from the per-spot state and re-evaluates all multipliers.
+     */
+    @Scheduled(fixedDelayString = "${pricing.refresh-interval-ms:60000}")
+    public void refresh() {
+        refreshTimer.record(() -> areas.forEach(this::recount));
+    }
+
+    /**
+     * Same as {@link #refresh()} for one region.
+     */
+    public void refresh(String region) {
+        Area area = areas.get(region);
+        if (area != null) {
+            recount(region, area);
+        }
+    }
+
+    private synchronized void recount(String region, Area area) {
+        Map<Long, int[]> counts = new HashMap<>();
+        for (Spot spot : area.spots.values()) {
+            int[] count = counts.computeIfAbsent(spot.cell(), k -> new int[2]);
+            count[0]++;
+            if (spot.occupied()) {
+                count[1]++;
+            }
+        }
+        for (Map.Entry<Long, Cell> entry : area.cells.entrySet()) {
+            int[] count = counts.getOrDefault(entry.getKey(), new int[2]);
+            Cell cell = entry.getValue();
+            cell.total = count[0];
+            cell.occupied = count[1];
+            reprice(region, cell);
+        }
+    }
+
+    private synchronized void put(Long id, String region, double latitude, double longitude, boolean available) {
+        Area area = areas.computeIfAbsent(region, k -> newArea(latitude));
+        Spot previous = area.spots.get(id);
+        if (previous != null) {
+            area.spots.remove(id);
+            leave(region, area, previous);
+        }
+        reprice(region, place(area, id, latitude, longitude, available));
+    }
+
+    /**
+     * Adds a spot to its cell and counts it, without re-evaluating the cell.
+     */
+    private Cell place(Area area, Long id, double latitude, double longitude, boolean available) {
+        long cellKey = cellKey(cellIndex(latitude, cellDegrees), cellIndex(longitude, area.longitudeCellDegrees));
+        Spot spot = new Spot(id, cellKey, available, holdTable.find(id) != null);
+        area.spots.put(id, spot);
+        Cell cell = area.cells.computeIfAbsent(cellKey, k -> new Cell());
+        cell.ids.add(id);
+        cell.total++;
+        if (spot.occupied()) {
+            cell.occupied++;
+        }
+        return cell;
+    }
+
+    private synchronized void update(String region, Long id, UnaryOperator<Spot> change) {
+        Area area = areas.get(region);
+        Spot previous = area == null ? null : area.spots.get(id);
+        if (previous == null) {
+            return;
+        }
+        Spot next = change.apply(previous);
+        area.spots.put(id, next);
+        if (next.occupied() != previous.occupied()) {
+            Cell cell = area.cells.get(next.cell());
+            cell.occupied += next.occupied() ? 1 : -1;
+            reprice(region, cell);
+        }
+    }
+
+    private synchronized void remove(String region, Long id) {
+        Area area = areas.get(region);
+        Spot previous = area == null ? null : area.spots.remove(id);
+        if (previous != null) {
+            leave(region, area, previous);
+        }
+    }
+
+    private void leave(String region, Area area, Spot spot) {
+        Cell cell = area.cells.get(spot.cell());
+        cell.ids.remove(spot.id());
+        cell.total--;
+        if (spot.occupied()) {
+            cell.occupied--;
+        }
+        if (cell.ids.isEmpty()) {
+            area.cells.remove(spot.cell());
+        } else {
+            reprice(region, cell);
+        }
+    }
+
+    private void reprice(String region, Cell cell) {
+        double next = multiplierFor(cell.total, cell.occupied);
+        if (next != cell.multiplier) {
+            cell.multiplier = next;
+            dataVersion.bump(region, cell.ids);
+        }
+    }
+
+    private double multiplierFor(int total, int occupied) {
+        if (total < minSpotsPerCell) {
+            return 1.0;
+        }
+        double occupancy = occupied / (double) total;
+        double multiplier = 1.0;
+        for (int i = 0; i < thresholds.length && occupancy >= thresholds[i]; i++) {
+            multiplier = multipliers[i];
+        }
+        return multiplier;
+    }
+
+    private Area newArea(double referenceLatitude) {
+        double scale = Math.max(Math.cos(Math.toRadians(referenceLatitude)), MIN_LONGITUDE_SCALE);
+        return new Area(cellDegrees / scale);
+    }
+
+    private static long cellIndex(double degrees, double cellSize) {
+        return (long) Math.floor(degrees / cellSize);
+    }
+
+    private static long cellKey(long row, long col) {
+        return (row << 32) | (col & 0xFFFFFFFFL);
+    }
+
+    /**
+     * {@code occupancy:multiplier,...}, e.g. {@code 0.7:1.25,0.85:1.5}; empty for static prices.
+     */
+    private static double[][] parseTiers(String tiers) {
+        List<double[]> parsed = new ArrayList<>();
+        if (StringUtils.hasText(tiers)) {
+            for (String tier : tiers.split(",")) {
+                String[] pair = tier.trim().split(":");
+                if (pair.length != 2) {
+                    throw new IllegalArgumentException("pricing.tiers entries must be occupancy:multiplier, got: " + tier);
+                }
+                double occupancy = Double.parseDouble(pair[0].trim());
+                double multiplier = Double.parseDouble(pair[1].trim());
+                if (occupancy < 0 || occupancy > 1 || multiplier <= 0) {
+                    throw new IllegalArgumentException("Invalid pricing tier: " + tier);
+                }
+                parsed.add(new double[]{occupancy, multiplier});
+            }
+        }
+        parsed.sort((a, b) -> Double.compare(a[0], b[0]));
+        return new double[][]{
+                parsed.stream().mapToDouble(tier -> tier[0]).toArray(),
+                parsed.stream().mapToDouble(tier -> tier[1]).toArray()};
+    }
+
+    private record Spot(Long id, long cell, boolean available, boolean held) {
+
+        boolean occupied() {
+            return !available || held;
+        }
+
+        Spot withAvailable(boolean value) {
+            return new Spot(id, cell, value, held);
+        }
+
+        Spot withHeld(boolean value) {
+            return new Spot(id, cell, available, value);
+        }
+    }
+
+    // Counts are only written under the engine's lock; the multiplier is read without it
+    private static final class Cell {
+        private final Set<Long> ids = ConcurrentHashMap.newKeySet();
+        private int total;
+        private int occupied;
+        private volatile double multiplier = 1.0;
+    }
+
+    // One region's spots and cells; the longitude cell width is fixed when the region is first seen
+    private static final class Area {
+        private final Map<Long, Spot> spots = new ConcurrentHashMap<>();
+        private final Map<Long, Cell> cells = new ConcurrentHashMap<>();
+        private final double longitudeCellDegrees;
+
+        private Area(double longitudeCellDegrees) {
+            this.longitudeCellDegrees = longitudeCellDegrees;
+        }
+    }
+}
@@ -3,15 +3,32 @@ package com.smart.parking.backend.service;
 import com.smart.parking.backend.dto.ParkingSpotDTO;
 import java.util.List;
 
+/**
+ * Lists and searches cover one region. Writes, and reads by id, are only accepted for regions this node
+ * owns. A held spot is reported as not available (with {@code heldUntil}) and left out of availability
+ * searches.
+ */
 public interface ParkingSpotService {
-    List<ParkingSpotDTO> getAllParkingSpots();
-    List<ParkingSpotDTO> getAvailableParkingSpots();
-    List<ParkingSpotDTO> getNearbyParkingSpots(double latitude, double longitude, double radiusInMeters);
-    List<ParkingSpotDTO> getAvailableNearbyParkingSpots(double latitude, double longitude, double radiusInMeters);
+    List<ParkingSpotDTO> getAllParkingSpots(String region);
+    List<ParkingSpotDTO> getAvailableParkingSpots(String region);
+    List<ParkingSpotDTO> getNearbyParkingSpots(String region, double latitude, double longitude, double radiusInMeters, boolean orderByDistance);
+    List<ParkingSpotDTO> getAvailableNearbyParkingSpots(String region, double latitude, double longitude, double radiusInMeters, boolean orderByDistance);
     ParkingSpotDTO getParkingSpotById(Long id);
+
+    /**
+     * Region a spot belongs to, for routing requests by id.
+     */
+    String getParkingSpotRegion(Long id);
     ParkingSpotDTO createParkingSpot(ParkingSpotDTO parkingSpotDTO);
     ParkingSpotDTO updateParkingSpot(Long id, ParkingSpotDTO parkingSpotDTO);
     void deleteParkingSpot(Long id);
 
     ParkingSpotDTO updateSpotAvailability(Long id, boolean available);
-}
\ No newline at end of file
+
+    /**
+     * Claims an available spot for {@code userId} for {@code minutes}, replacing any other hold they have.
+     */
+    ParkingSpotDTO holdParkingSpot(Long id, Long userId, int minutes);
+
+    void releaseParkingSpotHold(Long id, Long userId);
+}
@@ -0,0 +1,140 @@
+package com.smart.parking.backend.service;
+
+import com.smart.parking.backend.config.RegionProperties;
+import com.smart.parking.backend.exception.BadRequestException;
+import com.smart.parking.backend.exception.RegionNotOwnedException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Places requests and spots in a region and decides whether this node serves it. A request names its region
+ * with {@code region=}; otherwise it is the region whose bounds contain the request's coordinates, and the
+ * default region when there are none. Requests for regions owned elsewhere fail with
+ * {@link RegionNotOwnedException} (redirected to the owner when its URL is known).
+ * <p>
+ * Region names also become topic names and PostgreSQL partition names, hence the restricted syntax.
+ */
+@Component
+@EnableConfigurationProperties(RegionProperties.class)
+@Slf4j
+public class RegionRouter {
+
+    private static final Pattern NAME = Pattern.compile("[a-z0-9][a-z0-9-]{0,31}");
+
+    private final String defaultRegion;
+    // null: every region is served here
+    private final Set<String> owned;
+    private final Map<String, double[]> bounds = new LinkedHashMap<>();
+    private final Map<String, String> ownerUrls;
+
+    public RegionRouter(RegionProperties properties) {
+        this.defaultRegion = validName(properties.defaultRegion());
+        if (properties.owned().contains(RegionProperties.ALL)) {
+            this.owned = null;
+        } else {
+            Set<String> names = new LinkedHashSet<>();
+            properties.owned().forEach(name -> names.add(validName(name.trim())));
+            this.owned = Set.copyOf(names);
+        }
+        properties.bounds().forEach((name, box) -> bounds.put(validName(name), parseBox(name, box)));
+        this.ownerUrls = properties.ownerUrls();
+        log.info("Regions: default={}, owned={}, bounded={}", defaultRegion,
+                owned == null ? RegionProperties.ALL : owned, bounds.keySet());
+    }
+
+    /**
+     * Region for a request, checked to be served here.
+     *
+     * @param requested {@code region} parameter, may be null
+     * @param latitude  request coordinates, may be null
+     */
+    public String route(String requested, Double latitude, Double longitude) {
+        String region = StringUtils.hasText(requested)
+                ? validName(requested)
+                : latitude != null && longitude != null ? regionAt(latitude, longitude) : defaultRegion;
+        requireOwned(region);
+        return region;
+    }
+
+    /**
+     * First configured region whose bounds contain the point, else the default region.
+     */
+    public String regionAt(double latitude, double longitude) {
+        for (Map.Entry<String, double[]> entry : bounds.entrySet()) {
+            double[] box = entry.getValue();
+            if (latitude >= box[0] && latitude <= box[2] && longitude >= box[1] && longitude <= box[3]) {
+                return entry.getKey();
+            }
+        }
+        return defaultRegion;
+    }
+
+    public void requireOwned(String region) {
+        if (!owns(region)) {
+            throw new RegionNotOwnedException(region, ownerUrls.get(region));
+        }
+    }
+
+    public boolean owns(String region) {
+        return owned == null || owned.contains(region);
+    }
+
+    public boolean ownsAll() {
+        return owned == null;
+    }
+
+    /**
+     * Regions served here, or empty when every region is ({@link #ownsAll()}).
+     */
+    public Set<String> ownedRegions() {
+        return owned == null ? Set.of() : owned;
+    }
+
+    /**
+     * Every region named in the configuration (default, owned and bounded).
+     */
+    public Set<String> knownRegions() {
+        Set<String> known = new LinkedHashSet<>();
+        known.add(defaultRegion);
+        known.addAll(ownedRegions());
+        known.addAll(bounds.keySet());
+        return known;
+    }
+
+    public String defaultRegion() {
+        return defaultRegion;
+    }
+
+    /**
+     * Per-region variant of a STOMP destination. The default region keeps the plain destination, so clients
+     * of a single-region deployment are unaffected.
+     */
+    public String topic(String destination, String region) {
+        return defaultRegion.equals(region) ? destination : destination + "." + region;
+    }
+
+    public static String validName(String region) {
+        if (region == null || !NAME.matcher(region).matches()) {
+            throw new BadRequestException("Invalid region: " + region
+                    + " (lowercase letters, digits and '-', at most 32 characters)");
+        }
+        return region;
+    }
+
+    private static double[] parseBox(String name, String box) {
+        List<String> parts = List.of(box.split(","));
+        if (parts.size() != 4) {
+            throw new IllegalArgumentException("regions.bounds." + name + " must be minLat,minLng,maxLat,maxLng");
+        }
+        return parts.stream().mapToDouble(part -> Double.parseDouble(part.trim())).toArray();
+    }
+}
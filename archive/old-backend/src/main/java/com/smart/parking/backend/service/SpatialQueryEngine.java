@@ -0,0 +1,20 @@
+package com.smart.parking.backend.service;
+
+import com.smart.parking.backend.model.ParkingSpot;
+
+import java.util.List;
+
+/**
+ * Radius search over the parking spots of one region. PostgreSQL with PostGIS answers it in the database;
+ * every other database (H2, MySQL) uses an index kept in the application. Chosen by {@code SpatialConfig}.
+ */
+public interface SpatialQueryEngine {
+
+    /**
+     * @param orderByDistance closest first if set, otherwise in no particular order
+     */
+    List<ParkingSpot> findNearby(String region, double latitude, double longitude, double radiusInMeters,
+                                 boolean availableOnly, boolean orderByDistance);
+
+    String getName();
+}
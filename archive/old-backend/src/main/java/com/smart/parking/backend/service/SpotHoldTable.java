@@ -0,0 +1,316 @@
+package com.smart.parking.backend.service;
+
+import com.smart.parking.backend.event.ParkingSpotUpdateEvent;
+import com.smart.parking.backend.model.SpotHold;
+import com.smart.parking.backend.repository.SpotHoldRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Live spot holds, keyed by spot id. A claim is a {@code putIfAbsent}/{@code replace} on one map entry, so
+ * when many drivers race for the last free spots in an area exactly one wins each spot and the others are
+ * refused at once: no row locks and no database round trip on the request path. Changes are written
+ * behind to {@code spot_holds} every {@code holds.flush-interval-ms} and reloaded at startup, so a restart
+ * loses at most one flush interval of claims and releases.
+ * <p>
+ * A hold past its expiry counts as absent for reads and claims. Each hold is dropped, and the spot announced
+ * as free, at its expiry time, so versioned snapshots and ETags move on when the hold stops counting; the
+ * sweep ({@code holds.sweep-interval-ms}) catches any that were missed. A user has at most one hold:
+ * claiming another spot releases the previous one, and a user's claims and releases are applied one at a
+ * time. Holds of a region only exist on the node that owns it, since writes are routed there.
+ * Every change is published as a {@link ParkingSpotUpdateEvent} ({@code HOLD}, {@code HOLD_RELEASE},
+ * {@code HOLD_EXPIRED}).
+ */
+@Component
+@Slf4j
+public class SpotHoldTable {
+
+    public static final String HOLD = "HOLD";
+    public static final String HOLD_RELEASE = "HOLD_RELEASE";
+    public static final String HOLD_EXPIRED = "HOLD_EXPIRED";
+
+    private static final String CLAIMS = "parking.holds.claims";
+
+    private final SpotHoldRepository repository;
+    private final RegionRouter regionRouter;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Values are immutable and swapped with replace(), so a claim either wins the entry or sees the winner
+    private final Map<Long, Hold> holds = new ConcurrentHashMap<>();
+    // holder -> spot; its entry lock serializes each user's claims and releases
+    private final Map<Long, Long> byUser = new ConcurrentHashMap<>();
+    // Spots whose hold changed since the last flush; written if held, deleted otherwise
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+    // Earliest expiry of a row this node may have left in spot_holds; deleteExpired only runs once it passes.
+    // Starts in the past so rows that expired while the node was down are removed on the first flush
+    private volatile Instant nextRowExpiry = Instant.MIN;
+
+    private final Counter won;
+    private final Counter lost;
+    private final ScheduledExecutorService expiries = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "hold-expiry");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public SpotHoldTable(SpotHoldRepository repository, RegionRouter regionRouter,
+                         ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.regionRouter = regionRouter;
+        this.eventPublisher = eventPublisher;
+        this.won = Counter.builder(CLAIMS).tag("outcome", "won").register(meterRegistry);
+        this.lost = Counter.builder(CLAIMS).tag("outcome", "lost").register(meterRegistry);
+        Gauge.builder("parking.holds.active", holds, Map::size)
+                .description("Holds in memory, including expired ones not yet swept")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void load() {
+        for (SpotHold row : repository.findByExpiresAtAfter(Instant.now())) {
+            if (regionRouter.owns(row.getRegion())) {
+                Hold hold = new Hold(row.getSpotId(), row.getRegion(), row.getUserId(), row.getExpiresAt());
+                holds.put(row.getSpotId(), hold);
+                byUser.put(row.getUserId(), row.getSpotId());
+                scheduleExpiry(hold);
+            }
+        }
+        log.info("Loaded {} spot hold(s)", holds.size());
+    }
+
+    /**
+     * Holds a spot for {@code userId}, or extends the hold they already have on it. The caller checks that
+     * the spot exists and is available.
+     *
+     * @return the new hold, or the competing live hold when another user has the spot
+     */
+    public Hold claim(Long spotId, String region, Long userId, Duration duration) {
+        Hold mine = new Hold(spotId, region, userId, Instant.now().plus(duration));
+        AtomicReference<Hold> winner = new AtomicReference<>();
+        AtomicReference<Hold> replaced = new AtomicReference<>();
+        byUser.compute(userId, (user, heldSpot) -> {
+            Hold current = take(mine);
+            winner.set(current);
+            if (current != mine) {
+                return heldSpot;
+            }
+            if (heldSpot != null && !heldSpot.equals(spotId)) {
+                replaced.set(remove(heldSpot, userId));
+            }
+            return spotId;
+        });
+        if (winner.get() != mine) {
+            lost.increment();
+            return winner.get();
+        }
+        won.increment();
+        dirty.add(spotId);
+        scheduleExpiry(mine);
+        if (replaced.get() != null) {
+            publish(replaced.get(), true, HOLD_RELEASE);
+        }
+        publish(mine, false, HOLD);
+        return mine;
+    }
+
+    /**
+     * Ends {@code userId}'s hold on a spot.
+     *
+     * @return false if they hold no live hold on it
+     */
+    public boolean release(Long spotId, Long userId) {
+        AtomicReference<Hold> released = new AtomicReference<>();
+        byUser.computeIfPresent(userId, (user, heldSpot) -> {
+            Hold current = remove(spotId, userId);
+            released.set(current);
+            return current != null && heldSpot.equals(spotId) ? null : heldSpot;
+        });
+        if (released.get() == null) {
+            return false;
+        }
+        publish(released.get(), true, HOLD_RELEASE);
+        return true;
+    }
+
+    /**
+     * Live hold on a spot, or null.
+     */
+    public Hold find(Long spotId) {
+        Hold hold = holds.get(spotId);
+        return hold != null && hold.isLive(Instant.now()) ? hold : null;
+    }
+
+    /**
+     * Cheap check that lets readers skip per-spot lookups while nothing is held.
+     */
+    public boolean isEmpty() {
+        return holds.isEmpty();
+    }
+
+    public int size() {
+        return holds.size();
+    }
+
+    @EventListener
+    public void onParkingSpotUpdate(ParkingSpotUpdateEvent event) {
+        if ("DELETE".equals(event.getUpdateType())) {
+            Hold removed = holds.remove(event.getSpotId());
+            if (removed != null) {
+                byUser.remove(removed.userId(), removed.spotId());
+                dirty.add(removed.spotId());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${holds.sweep-interval-ms:1000}")
+    public void sweep() {
+        Instant now = Instant.now();
+        for (Hold hold : holds.values()) {
+            if (!hold.isLive(now)) {
+                expire(hold);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${holds.flush-interval-ms:2000}")
+    public void flush() {
+        List<Long> changed = drain(dirty);
+        if (!changed.isEmpty()) {
+            List<SpotHold> rows = new ArrayList<>();
+            List<Long> released = new ArrayList<>();
+            for (Long spotId : changed) {
+                Hold hold = holds.get(spotId);
+                if (hold != null) {
+                    rows.add(new SpotHold(spotId, hold.region(), hold.userId(), hold.expiresAt()));
+                } else {
+                    released.add(spotId);
+                }
+            }
+            if (!released.isEmpty()) {
+                try {
+                    repository.deleteAllByIdInBatch(released);
+                } catch (RuntimeException e) {
+                    dirty.addAll(released);
+                    log.warn("Failed to delete released holds of spot(s) {}, will retry: {}", released, e.getMessage());
+                }
+            }
+            if (!rows.isEmpty()) {
+                try {
+                    repository.saveAll(rows);
+                    rows.stream().map(SpotHold::getExpiresAt).min(Instant::compareTo)
+                            .filter(earliest -> earliest.isBefore(nextRowExpiry))
+                            .ifPresent(earliest -> nextRowExpiry = earliest);
+                } catch (RuntimeException e) {
+                    List<Long> failed = rows.stream().map(SpotHold::getSpotId).toList();
+                    dirty.addAll(failed);
+                    log.warn("Failed to persist holds of spot(s) {}, will retry: {}", failed, e.getMessage());
+                }
+            }
+        }
+
+        Instant now = Instant.now();
+        if (now.isBefore(nextRowExpiry)) {
+            return;
+        }
+        try {
+            repository.deleteExpired(now);
+            // Rows left are live; the ones this node wrote belong to holds still in memory
+            nextRowExpiry = holds.values().stream().map(Hold::expiresAt).min(Instant::compareTo).orElse(Instant.MAX);
+        } catch (RuntimeException e) {
+            log.warn("Failed to delete expired spot holds: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        expiries.shutdownNow();
+        flush();
+    }
+
+    /**
+     * Installs {@code mine} unless another user has a live hold on the spot.
+     *
+     * @return {@code mine}, or the competing live hold
+     */
+    private Hold take(Hold mine) {
+        Hold current = holds.putIfAbsent(mine.spotId(), mine);
+        while (current != null) {
+            if (current.isLive(Instant.now()) && !current.userId().equals(mine.userId())) {
+                return current;
+            }
+            // Expired, or our own: take it over unless someone else just did
+            if (holds.replace(mine.spotId(), current, mine)) {
+                break;
+            }
+            current = holds.putIfAbsent(mine.spotId(), mine);
+        }
+        return mine;
+    }
+
+    // Removes the user's live hold on a spot and returns it, or null; the caller owns the byUser entry
+    private Hold remove(Long spotId, Long userId) {
+        Hold current = holds.get(spotId);
+        if (current == null || !current.userId().equals(userId) || !current.isLive(Instant.now())
+                || !holds.remove(spotId, current)) {
+            return null;
+        }
+        dirty.add(spotId);
+        return current;
+    }
+
+    private void scheduleExpiry(Hold hold) {
+        long delayMs = Math.max(0, Duration.between(Instant.now(), hold.expiresAt()).toMillis());
+        expiries.schedule(() -> expire(hold), delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    // No-op unless the hold is still the spot's current one (not released, extended or replaced)
+    private void expire(Hold hold) {
+        if (holds.remove(hold.spotId(), hold)) {
+            byUser.remove(hold.userId(), hold.spotId());
+            dirty.add(hold.spotId());
+            publish(hold, true, HOLD_EXPIRED);
+        }
+    }
+
+    private void publish(Hold hold, boolean free, String type) {
+        eventPublisher.publishEvent(new ParkingSpotUpdateEvent(this, hold.spotId(), hold.region(), free, type));
+    }
+
+    private static List<Long> drain(Set<Long> keys) {
+        List<Long> drained = new ArrayList<>();
+        Iterator<Long> it = keys.iterator();
+        while (it.hasNext()) {
+            drained.add(it.next());
+            it.remove();
+        }
+        return drained;
+    }
+
+    public record Hold(Long spotId, String region, Long userId, Instant expiresAt) {
+
+        boolean isLive(Instant now) {
+            return expiresAt.isAfter(now);
+        }
+    }
+}
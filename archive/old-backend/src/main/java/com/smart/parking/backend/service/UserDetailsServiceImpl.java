@@ -1,9 +1,11 @@
 package com.smart.parking.backend.service;
 
+import com.smart.parking.backend.model.User;
 import com.smart.parking.backend.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -11,7 +13,7 @@ import org.springframework.stereotype.Service;
 @Service
 @RequiredArgsConstructor
 @Slf4j
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
 
@@ -25,4 +27,16 @@ public class UserDetailsServiceImpl implements UserDetailsService {
                     return new UsernameNotFoundException("User not found with email: " + email);
                 });
     }
+
+    /**
+     * Called by Spring Security after a successful login when the stored hash uses a lower BCrypt
+     * strength than {@code security.bcrypt.strength}.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        User entity = (User) user;
+        entity.setPassword(newPassword);
+        log.info("Upgraded password hash for user: {}", entity.getEmail());
+        return userRepository.save(entity);
+    }
 }
\ No newline at end of file
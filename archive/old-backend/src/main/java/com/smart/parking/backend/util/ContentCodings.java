@@ -0,0 +1,132 @@
+package com.smart.parking.backend.util;
+
+import com.aayushatharva.brotli4j.Brotli4jLoader;
+import com.aayushatharva.brotli4j.encoder.Encoder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.StringUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * {@code Accept-Encoding} negotiation and the encoders for bodies we compress once and serve many times.
+ * Brotli needs the brotli4j native library; where it does not load (e.g. musl-based images) only gzip is
+ * offered.
+ */
+@Slf4j
+public final class ContentCodings {
+
+    public enum Coding {
+        IDENTITY("identity"), GZIP("gzip"), BROTLI("br");
+
+        private final String token;
+
+        Coding(String token) {
+            this.token = token;
+        }
+
+        public String token() {
+            return token;
+        }
+    }
+
+    private ContentCodings() {
+    }
+
+    /**
+     * Best coding the client accepts: brotli, then gzip, then identity. Honors {@code q=0} and {@code *}.
+     */
+    public static Coding negotiate(String acceptEncoding) {
+        if (!StringUtils.hasText(acceptEncoding)) {
+            return Coding.IDENTITY;
+        }
+        double br = -1;
+        double gzip = -1;
+        double any = -1;
+        for (String part : acceptEncoding.split(",")) {
+            String[] params = part.trim().split(";");
+            String name = params[0].trim().toLowerCase(Locale.ROOT);
+            double q = quality(params);
+            switch (name) {
+                case "br" -> br = q;
+                case "gzip", "x-gzip" -> gzip = q;
+                case "*" -> any = q;
+                default -> {
+                }
+            }
+        }
+        br = br < 0 ? any : br;
+        gzip = gzip < 0 ? any : gzip;
+        if (br > 0 && br >= gzip && BrotliHolder.AVAILABLE) {
+            return Coding.BROTLI;
+        }
+        return gzip > 0 ? Coding.GZIP : Coding.IDENTITY;
+    }
+
+    public static byte[] gzip(byte[] data, int level) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out, 64 * 1024) {
+            {
+                def.setLevel(level);
+            }
+        }) {
+            gzip.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    public static byte[] brotli(byte[] data, int quality) {
+        try {
+            return Encoder.compress(data, new Encoder.Parameters().setQuality(quality));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static byte[] encode(byte[] data, Coding coding, int gzipLevel, int brotliQuality) {
+        return switch (coding) {
+            case IDENTITY -> data;
+            case GZIP -> gzip(data, gzipLevel);
+            case BROTLI -> brotli(data, brotliQuality);
+        };
+    }
+
+    public static boolean brotliAvailable() {
+        return BrotliHolder.AVAILABLE;
+    }
+
+    private static double quality(String[] params) {
+        for (int i = 1; i < params.length; i++) {
+            String param = params[i].trim();
+            if (param.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(param.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    // Loaded on first use so a missing native library only disables brotli
+    private static final class BrotliHolder {
+
+        static final boolean AVAILABLE = load();
+
+        private static boolean load() {
+            try {
+                Brotli4jLoader.ensureAvailability();
+                return true;
+            } catch (Throwable t) {
+                log.warn("Brotli unavailable, serving gzip only: {}", t.toString());
+                return false;
+            }
+        }
+    }
+}
@@ -9,9 +9,24 @@ import org.springframework.stereotype.Component;
 @Component
 public class GeometryUtil {
 
+    private static final double EARTH_RADIUS_METERS = 6_371_008.8;
+
     private final GeometryFactory geometryFactory = new GeometryFactory(new PrecisionModel(), 4326);
 
     public Point createPoint(double longitude, double latitude) {
         return geometryFactory.createPoint(new Coordinate(longitude, latitude));
     }
-}
\ No newline at end of file
+
+    /**
+     * Great-circle distance in meters (haversine, mean earth radius). Matches PostGIS geography
+     * distances closely enough for radius filtering at city scale.
+     */
+    public static double distanceMeters(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+}
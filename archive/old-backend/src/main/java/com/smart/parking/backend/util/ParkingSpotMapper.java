@@ -0,0 +1,40 @@
+package com.smart.parking.backend.util;
+
+import com.smart.parking.backend.dto.ParkingSpotDTO;
+import com.smart.parking.backend.model.ParkingSpot;
+
+/**
+ * Entity/DTO conversion for parking spots. The geometry column is not part of the DTO; callers set
+ * {@code location} themselves when persisting.
+ */
+public final class ParkingSpotMapper {
+
+    private ParkingSpotMapper() {
+    }
+
+    public static ParkingSpotDTO toDTO(ParkingSpot parkingSpot) {
+        ParkingSpotDTO dto = new ParkingSpotDTO();
+        dto.setId(parkingSpot.getId());
+        dto.setRegion(parkingSpot.getRegion());
+        dto.setAddress(parkingSpot.getAddress());
+        dto.setLatitude(parkingSpot.getLatitude());
+        dto.setLongitude(parkingSpot.getLongitude());
+        dto.setAvailable(parkingSpot.isAvailable());
+        dto.setPrice(parkingSpot.getPrice());
+        dto.setRestrictions(parkingSpot.getRestrictions());
+        return dto;
+    }
+
+    public static ParkingSpot toEntity(ParkingSpotDTO dto) {
+        ParkingSpot entity = new ParkingSpot();
+        entity.setId(dto.getId());
+        entity.setRegion(dto.getRegion());
+        entity.setAddress(dto.getAddress());
+        entity.setLatitude(dto.getLatitude());
+        entity.setLongitude(dto.getLongitude());
+        entity.setAvailable(dto.isAvailable());
+        entity.setPrice(dto.getPrice());
+        entity.setRestrictions(dto.getRestrictions());
+        return entity;
+    }
+}
@@ -0,0 +1,55 @@
+package com.smart.parking.backend.util;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.filter.Filter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps one in {@code oneIn} events marked {@link #SAMPLED}, counted per logger so a noisy logger cannot
+ * crowd out a quieter one. Used for statements that fire on every search or availability report.
+ * WARN and ERROR always pass, and unmarked events are left alone.
+ * <p>
+ * Attached to the async appender, so it runs on the calling thread before the event is queued; a dropped
+ * event is never formatted. (Logback does not pass fluent-API markers to turbo filters, hence an
+ * appender filter.) Configured in {@code logback-spring.xml} ({@code logging.sampling.one-in}).
+ */
+public class SampledLogFilter extends Filter<ILoggingEvent> {
+
+    public static final Marker SAMPLED = MarkerFactory.getMarker("SAMPLED");
+
+    private final Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+    private int oneIn = 100;
+
+    public void setOneIn(int oneIn) {
+        this.oneIn = Math.max(1, oneIn);
+    }
+
+    @Override
+    public FilterReply decide(ILoggingEvent event) {
+        if (oneIn == 1 || event.getLevel().isGreaterOrEqual(Level.WARN) || !isSampled(event.getMarkerList())) {
+            return FilterReply.NEUTRAL;
+        }
+        long n = counters.computeIfAbsent(event.getLoggerName(), k -> new AtomicLong()).getAndIncrement();
+        return n % oneIn == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    private static boolean isSampled(List<Marker> markers) {
+        if (markers == null) {
+            return false;
+        }
+        for (Marker marker : markers) {
+            if (marker.contains(SAMPLED)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
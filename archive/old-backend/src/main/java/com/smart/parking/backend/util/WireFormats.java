@@ -0,0 +1,105 @@
+package com.smart.parking.backend.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.util.StringUtils;
+
+import java.util.List;
+
+/**
+ * Holds the object mappers for the wire formats we serve. JSON stays the default; CBOR is a compact
+ * binary encoding of the same Jackson model, opted into with {@code Accept: application/cbor} on REST
+ * or by subscribing to the {@code .cbor} STOMP topics over the native (non-SockJS) WebSocket endpoint.
+ * <p>
+ * The CBOR mapper is deliberately not exposed as an {@link ObjectMapper} bean, otherwise Spring Boot
+ * would back off from creating the default JSON mapper.
+ */
+@Component
+public class WireFormats {
+
+    public static final String APPLICATION_CBOR_VALUE = "application/cbor";
+    public static final MediaType APPLICATION_CBOR = MediaType.valueOf(APPLICATION_CBOR_VALUE);
+    public static final MimeType APPLICATION_CBOR_MIME = MimeType.valueOf(APPLICATION_CBOR_VALUE);
+
+    /** Suffix appended to STOMP destinations that carry CBOR instead of JSON. */
+    public static final String CBOR_TOPIC_SUFFIX = ".cbor";
+
+    /** STOMP header carrying the real type of a binary frame, whose content-type is application/octet-stream. */
+    public static final String PAYLOAD_TYPE_HEADER = "payload-type";
+
+    /** WebSocket session attribute set on sessions that can receive binary frames (not SockJS). */
+    public static final String BINARY_FRAMES_ATTRIBUTE = "binaryFrames";
+
+    private final ObjectMapper jsonMapper;
+    private final ObjectMapper cborMapper;
+
+    public WireFormats(ObjectMapper jsonMapper, Jackson2ObjectMapperBuilder builder) {
+        this.jsonMapper = jsonMapper;
+        this.cborMapper = builder.factory(new CBORFactory()).build();
+    }
+
+    public ObjectMapper json() {
+        return jsonMapper;
+    }
+
+    public ObjectMapper cbor() {
+        return cborMapper;
+    }
+
+    /**
+     * Headers for a pre-encoded STOMP message. Spring only sends a binary WebSocket frame for
+     * application/octet-stream (any other type is sent as text, which would mangle CBOR), so CBOR goes out
+     * as octet-stream with {@value #PAYLOAD_TYPE_HEADER}{@code : application/cbor}.
+     */
+    public static MessageHeaders stompHeaders(MimeType contentType) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        if (APPLICATION_CBOR_MIME.equals(contentType)) {
+            accessor.setContentType(MimeTypeUtils.APPLICATION_OCTET_STREAM);
+            accessor.setNativeHeader(PAYLOAD_TYPE_HEADER, APPLICATION_CBOR_VALUE);
+        } else {
+            accessor.setContentType(contentType);
+        }
+        accessor.setLeaveMutable(true);
+        return accessor.getMessageHeaders();
+    }
+
+    /**
+     * For handlers that write pre-encoded bytes and therefore cannot rely on message-converter negotiation.
+     * JSON wins unless CBOR has a higher quality, or the same quality with an exact (non-wildcard) match.
+     */
+    public static boolean prefersCbor(String acceptHeader) {
+        if (!StringUtils.hasText(acceptHeader)) {
+            return false;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(acceptHeader);
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+        double jsonScore = score(accepted, MediaType.APPLICATION_JSON);
+        double cborScore = score(accepted, APPLICATION_CBOR);
+        return cborScore > jsonScore;
+    }
+
+    // Quality, plus a small bonus for an exact match so "application/cbor, */*" picks CBOR
+    private static double score(List<MediaType> accepted, MediaType candidate) {
+        double best = -1;
+        for (MediaType type : accepted) {
+            if (type.includes(candidate)) {
+                double score = type.getQualityValue() + (type.isWildcardType() || type.isWildcardSubtype() ? 0 : 0.0001);
+                best = Math.max(best, score);
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,19 @@
+-- In-memory H2 (h2 profile, smoke runs). Mirrors db/migration/postgresql without PostGIS-specific indexes.
+CREATE TABLE IF NOT EXISTS parking_spots (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    address      VARCHAR(255)     NOT NULL,
+    latitude     DOUBLE PRECISION NOT NULL,
+    longitude    DOUBLE PRECISION NOT NULL,
+    location     GEOMETRY(POINT, 4326),
+    available    BOOLEAN          NOT NULL,
+    price        DOUBLE PRECISION,
+    restrictions VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS users (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    full_name  VARCHAR(255) NOT NULL,
+    email      VARCHAR(255) NOT NULL UNIQUE,
+    password   VARCHAR(255) NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL
+);
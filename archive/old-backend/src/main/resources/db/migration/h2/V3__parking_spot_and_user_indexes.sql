@@ -0,0 +1 @@
+CREATE INDEX IF NOT EXISTS idx_parking_spots_available ON parking_spots (available);
@@ -0,0 +1,4 @@
+-- Region dimension. H2 has no partitioning; the composite index keeps per-region reads off other regions' rows.
+ALTER TABLE parking_spots ADD COLUMN IF NOT EXISTS region VARCHAR(32) DEFAULT 'default' NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_parking_spots_region_available ON parking_spots (region, available);
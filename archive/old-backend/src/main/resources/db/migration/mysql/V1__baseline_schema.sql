@@ -0,0 +1,20 @@
+-- MySQL has no PostGIS; nearby search runs in the application (spatial.engine=memory, chosen automatically).
+CREATE TABLE IF NOT EXISTS parking_spots (
+    id           BIGINT       NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    address      VARCHAR(255) NOT NULL,
+    latitude     DOUBLE       NOT NULL,
+    longitude    DOUBLE       NOT NULL,
+    location     GEOMETRY SRID 4326,
+    available    BIT          NOT NULL,
+    price        DOUBLE,
+    restrictions VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS users (
+    id         BIGINT       NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    full_name  VARCHAR(255) NOT NULL,
+    email      VARCHAR(255) NOT NULL,
+    password   VARCHAR(255) NOT NULL,
+    updated_at DATETIME(6)  NOT NULL,
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
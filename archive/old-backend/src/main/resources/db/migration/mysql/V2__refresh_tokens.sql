@@ -0,0 +1,8 @@
+CREATE TABLE IF NOT EXISTS refresh_tokens (
+    token_hash VARCHAR(64) NOT NULL PRIMARY KEY,
+    family_id  VARCHAR(36) NOT NULL,
+    user_id    BIGINT      NOT NULL,
+    expires_at DATETIME(6) NOT NULL,
+    used       BIT         NOT NULL,
+    INDEX idx_refresh_tokens_family (family_id)
+);
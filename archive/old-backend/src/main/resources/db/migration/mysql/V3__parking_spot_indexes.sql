@@ -0,0 +1,2 @@
+-- findAllAvailable; users.email is unique since V1
+CREATE INDEX idx_parking_spots_available ON parking_spots (available);
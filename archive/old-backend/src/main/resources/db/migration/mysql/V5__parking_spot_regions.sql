@@ -0,0 +1,6 @@
+-- Region dimension. Not partitioned: MySQL requires the partition column in every unique key, including
+-- the primary key, and partitioned tables cannot have spatial indexes. The composite index keeps per-region
+-- reads off other regions' rows.
+ALTER TABLE parking_spots ADD COLUMN region VARCHAR(32) NOT NULL DEFAULT 'default';
+
+CREATE INDEX idx_parking_spots_region_available ON parking_spots (region, available);
@@ -0,0 +1,9 @@
+-- Spot holds, written behind from memory (SpotHoldTable). No foreign key: a hold row can briefly outlive
+-- its spot until the next flush, and claims never touch parking_spots rows.
+CREATE TABLE IF NOT EXISTS spot_holds (
+    spot_id    BIGINT      NOT NULL PRIMARY KEY,
+    region     VARCHAR(32) NOT NULL,
+    user_id    BIGINT      NOT NULL,
+    expires_at DATETIME(6) NOT NULL,
+    INDEX idx_spot_holds_expires_at (expires_at)
+);
@@ -0,0 +1,2 @@
+-- Hash of the used token a refresh token replaced, so rotation keeps cleaning up after a restart
+ALTER TABLE refresh_tokens ADD COLUMN previous_hash VARCHAR(64);
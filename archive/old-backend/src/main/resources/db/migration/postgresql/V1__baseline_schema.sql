@@ -0,0 +1,22 @@
+-- Schema as previously created by Hibernate (ddl-auto=update). Databases that already have it are
+-- baselined at version 1 (spring.flyway.baseline-on-migrate) and skip this script.
+CREATE EXTENSION IF NOT EXISTS postgis;
+
+CREATE TABLE IF NOT EXISTS parking_spots (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    address      VARCHAR(255)     NOT NULL,
+    latitude     DOUBLE PRECISION NOT NULL,
+    longitude    DOUBLE PRECISION NOT NULL,
+    location     geometry(Point, 4326),
+    available    BOOLEAN          NOT NULL,
+    price        DOUBLE PRECISION,
+    restrictions VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS users (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    full_name  VARCHAR(255) NOT NULL,
+    email      VARCHAR(255) NOT NULL UNIQUE,
+    password   VARCHAR(255) NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL
+);
@@ -0,0 +1,30 @@
+-- findNearby / findAvailableNearby filter on ST_DWithin(location::geography, ...): the index has to be on
+-- that same expression, an index on the geometry column itself is not used for geography distance.
+CREATE INDEX IF NOT EXISTS idx_parking_spots_location_geog
+    ON parking_spots USING GIST ((location::geography));
+
+-- Same expression restricted to available spots, usually a small fraction of the table
+CREATE INDEX IF NOT EXISTS idx_parking_spots_available_location_geog
+    ON parking_spots USING GIST ((location::geography))
+    WHERE available = true;
+
+-- findAllAvailable
+CREATE INDEX IF NOT EXISTS idx_parking_spots_available
+    ON parking_spots (id)
+    WHERE available = true;
+
+-- Hibernate-created databases already have a unique constraint on users.email under a generated name
+DO $$
+BEGIN
+    IF NOT EXISTS (
+        SELECT 1
+        FROM pg_index i
+        JOIN pg_class t ON t.oid = i.indrelid
+        JOIN pg_attribute a ON a.attrelid = t.oid AND a.attnum = i.indkey[0]
+        WHERE t.relname = 'users' AND i.indisunique AND i.indnatts = 1 AND a.attname = 'email'
+    ) THEN
+        CREATE UNIQUE INDEX uk_users_email ON users (email);
+    END IF;
+END $$;
+
+ANALYZE parking_spots;
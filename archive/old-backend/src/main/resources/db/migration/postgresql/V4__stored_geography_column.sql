@@ -0,0 +1,18 @@
+-- Stored geography copy of location, maintained by PostgreSQL on every insert/update. Queries filter and
+-- order on it directly, so the GiST index is a plain column index and nothing is cast per row.
+ALTER TABLE parking_spots
+    ADD COLUMN IF NOT EXISTS location_geog geography(Point, 4326)
+        GENERATED ALWAYS AS (location::geography) STORED;
+
+-- Replaced by the column indexes below
+DROP INDEX IF EXISTS idx_parking_spots_location_geog;
+DROP INDEX IF EXISTS idx_parking_spots_available_location_geog;
+
+CREATE INDEX IF NOT EXISTS idx_parking_spots_location_geog
+    ON parking_spots USING GIST (location_geog);
+
+CREATE INDEX IF NOT EXISTS idx_parking_spots_available_location_geog
+    ON parking_spots USING GIST (location_geog)
+    WHERE available = true;
+
+ANALYZE parking_spots;
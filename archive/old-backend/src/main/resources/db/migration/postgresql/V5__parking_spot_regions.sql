@@ -0,0 +1,80 @@
+-- Region dimension, with parking_spots LIST-partitioned by region: a query for one region (every list and
+-- search query filters on it) is pruned to that region's partition and its indexes, however many regions
+-- there are. Regions without a partition of their own share the DEFAULT partition, parking_spots_other;
+-- ensure_parking_spot_partition (below, called at startup for every configured region) gives a region its
+-- own partition and moves its rows there.
+--
+-- The primary key of a partitioned table must include the partition column, so it becomes (id, region).
+-- Ids still come from a single identity sequence; a lookup by id alone probes each partition's key index.
+CREATE TABLE parking_spots_partitioned (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    region        VARCHAR(32)      NOT NULL DEFAULT 'default',
+    address       VARCHAR(255)     NOT NULL,
+    latitude      DOUBLE PRECISION NOT NULL,
+    longitude     DOUBLE PRECISION NOT NULL,
+    location      geometry(Point, 4326),
+    location_geog geography(Point, 4326) GENERATED ALWAYS AS (location::geography) STORED,
+    available     BOOLEAN          NOT NULL,
+    price         DOUBLE PRECISION,
+    restrictions  VARCHAR(255),
+    PRIMARY KEY (id, region)
+) PARTITION BY LIST (region);
+
+CREATE TABLE parking_spots_other PARTITION OF parking_spots_partitioned DEFAULT;
+
+INSERT INTO parking_spots_partitioned (id, region, address, latitude, longitude, location, available, price, restrictions)
+SELECT id, 'default', address, latitude, longitude, location, available, price, restrictions
+FROM parking_spots;
+
+SELECT setval(pg_get_serial_sequence('parking_spots_partitioned', 'id'), COALESCE(MAX(id), 0) + 1, false)
+FROM parking_spots_partitioned;
+
+-- Also drops the V3/V4 indexes, whose names are reused below
+DROP TABLE parking_spots;
+ALTER TABLE parking_spots_partitioned RENAME TO parking_spots;
+ALTER TABLE parking_spots RENAME CONSTRAINT parking_spots_partitioned_pkey TO parking_spots_pkey;
+ALTER SEQUENCE parking_spots_partitioned_id_seq RENAME TO parking_spots_id_seq;
+
+-- Created on every partition, present and future
+CREATE INDEX idx_parking_spots_location_geog
+    ON parking_spots USING GIST (location_geog);
+
+CREATE INDEX idx_parking_spots_available_location_geog
+    ON parking_spots USING GIST (location_geog)
+    WHERE available = true;
+
+-- findAllAvailable
+CREATE INDEX idx_parking_spots_available
+    ON parking_spots (id)
+    WHERE available = true;
+
+-- Gives a region its own partition (parking_spots_r_<region>) unless it has one. A new partition may not
+-- overlap rows still in the default partition, so that partition is detached while the region's rows are
+-- moved out of it. DETACH locks parking_spots: concurrent writes wait rather than fail.
+CREATE OR REPLACE FUNCTION ensure_parking_spot_partition(p_region VARCHAR) RETURNS BOOLEAN
+LANGUAGE plpgsql AS $$
+DECLARE
+    partition_name TEXT := 'parking_spots_r_' || p_region;
+BEGIN
+    IF p_region !~ '^[a-z0-9][a-z0-9-]{0,31}$' THEN
+        RAISE EXCEPTION 'Invalid region name: %', p_region;
+    END IF;
+    IF to_regclass(quote_ident(partition_name)) IS NOT NULL THEN
+        RETURN false;
+    END IF;
+
+    ALTER TABLE parking_spots DETACH PARTITION parking_spots_other;
+    EXECUTE format('CREATE TABLE %I PARTITION OF parking_spots FOR VALUES IN (%L)', partition_name, p_region);
+    INSERT INTO parking_spots (id, region, address, latitude, longitude, location, available, price, restrictions)
+    SELECT id, region, address, latitude, longitude, location, available, price, restrictions
+    FROM parking_spots_other
+    WHERE region = p_region;
+    DELETE FROM parking_spots_other WHERE region = p_region;
+    ALTER TABLE parking_spots ATTACH PARTITION parking_spots_other DEFAULT;
+    EXECUTE format('ANALYZE %I', partition_name);
+    RETURN true;
+END $$;
+
+SELECT ensure_parking_spot_partition('default');
+
+ANALYZE parking_spots;
@@ -0,0 +1,40 @@
+-- Spot ids unique across regions. V5 made the primary key (id, region), which only keeps an id unique within
+-- one region's partition, while lookups, caches, holds and the spatial index all key spots by id alone.
+-- Ids may now only come from the identity sequence, so no two regions can get the same one; an explicit id
+-- needs OVERRIDING SYSTEM VALUE, which only the partition move below uses, with ids already in the table.
+ALTER TABLE parking_spots ALTER COLUMN id SET GENERATED ALWAYS;
+
+-- Replaces the V5 version. Returns at once, without locking anything, when the region has its partition.
+-- Rows are only moved (which needs the DEFAULT partition detached, an ACCESS EXCLUSIVE lock on
+-- parking_spots) when the DEFAULT partition actually holds some of the region's rows. Locks are waited for
+-- at most 5 seconds; on timeout nothing changes and the region's spots stay in the DEFAULT partition.
+CREATE OR REPLACE FUNCTION ensure_parking_spot_partition(p_region VARCHAR) RETURNS BOOLEAN
+LANGUAGE plpgsql AS $$
+DECLARE
+    partition_name TEXT := 'parking_spots_r_' || p_region;
+BEGIN
+    IF p_region !~ '^[a-z0-9][a-z0-9-]{0,31}$' THEN
+        RAISE EXCEPTION 'Invalid region name: %', p_region;
+    END IF;
+    IF to_regclass(quote_ident(partition_name)) IS NOT NULL THEN
+        RETURN false;
+    END IF;
+
+    PERFORM set_config('lock_timeout', '5s', true);
+    IF NOT EXISTS (SELECT 1 FROM parking_spots_other WHERE region = p_region) THEN
+        EXECUTE format('CREATE TABLE %I PARTITION OF parking_spots FOR VALUES IN (%L)', partition_name, p_region);
+        RETURN true;
+    END IF;
+
+    ALTER TABLE parking_spots DETACH PARTITION parking_spots_other;
+    EXECUTE format('CREATE TABLE %I PARTITION OF parking_spots FOR VALUES IN (%L)', partition_name, p_region);
+    INSERT INTO parking_spots (id, region, address, latitude, longitude, location, available, price, restrictions)
+    OVERRIDING SYSTEM VALUE
+    SELECT id, region, address, latitude, longitude, location, available, price, restrictions
+    FROM parking_spots_other
+    WHERE region = p_region;
+    DELETE FROM parking_spots_other WHERE region = p_region;
+    ALTER TABLE parking_spots ATTACH PARTITION parking_spots_other DEFAULT;
+    EXECUTE format('ANALYZE %I', partition_name);
+    RETURN true;
+END $$;